@@ -0,0 +1,28 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.load.DataGenerator;
+import ru.practicum.shareit.load.DataVolumes;
+
+/**
+ * Fixed dataset for the service benchmarks, generated by {@link DataGenerator}. User 1 is the most active
+ * owner and booker of the skewed distribution.
+ */
+public final class BenchmarkData {
+    public static final DataVolumes VOLUMES = DataVolumes.builder()
+            .users(1_000)
+            .items(10_000)
+            .requests(2_000)
+            .bookings(100_000)
+            .comments(20_000)
+            .skew(1.0)
+            .build();
+    public static final long USER_ID = 1L;
+
+    private BenchmarkData() {
+    }
+
+    public static void seed(JdbcTemplate jdbc) {
+        new DataGenerator(jdbc, VOLUMES).generate();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingListBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"ALL", "PAST", "CURRENT", "FUTURE", "WAITING"})
+    private BookingStatus state;
+    private BookingService bookingService;
+
+    @Setup
+    public void setUp(ShareItState shareItState) {
+        bookingService = shareItState.getBean(BookingService.class);
+    }
+
+    @Benchmark
+    public List<BookingOutputDto> byBooker() {
+        return bookingService.getAllBookingsByBookerAndState(BenchmarkData.USER_ID, state, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingOutputDto> byOwner() {
+        return bookingService.getAllBookingsByOwnerAndState(BenchmarkData.USER_ID, state, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookingPageDto pageByBooker() {
+        return bookingService.getBookingsPageByBookerAndState(BenchmarkData.USER_ID, state, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookingPageDto pageByOwner() {
+        return bookingService.getBookingsPageByOwnerAndState(BenchmarkData.USER_ID, state, null, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSearchBenchmark {
+    //a frequent word, a rare one and a miss that has to look at every row
+    @Param({"дрель", "сноуборд 99", "отсутствует"})
+    private String text;
+    private ItemService itemService;
+
+    @Setup
+    public void setUp(ShareItState state) {
+        itemService = state.getBean(ItemService.class);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchItem() {
+        return itemService.searchItem(text, 0, 20);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.comments.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.summary.model.ItemBookingSummary;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private final ItemMapper itemMapper = new ItemMapper();
+    private final BookingMapper bookingMapper = new BookingMapper();
+    private Item item;
+    private ItemBookingSummary summary;
+    private List<CommentDto> comments;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = new User();
+        owner.setId(1L);
+        owner.setName("owner");
+        owner.setEmail("owner@shareit.ru");
+        User booker = new User();
+        booker.setId(2L);
+        booker.setName("booker");
+        booker.setEmail("booker@shareit.ru");
+
+        item = new Item();
+        item.setId(1L);
+        item.setName("Дрель");
+        item.setDescription("Дрель в хорошем состоянии");
+        item.setAvailable(true);
+        item.setOwner(owner);
+
+        summary = new ItemBookingSummary();
+        summary.setItemId(1L);
+        summary.setLastBookingId(1L);
+        summary.setLastBookerId(2L);
+        summary.setLastStatus(BookingStatus.APPROVED);
+        summary.setNextBookingId(2L);
+        summary.setNextBookerId(2L);
+        summary.setNextStatus(BookingStatus.WAITING);
+        summary.setValidUntil(now.plusDays(1));
+
+        comments = List.of(
+                CommentDto.builder().id(1L).text("Отзыв 1").authorName("booker").itemId(1L).created(now).build(),
+                CommentDto.builder().id(2L).text("Отзыв 2").authorName("booker").itemId(1L).created(now).build());
+
+        booking = new Booking();
+        booking.setId(1L);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(BookingStatus.APPROVED);
+        booking.setStart(now.minusDays(2));
+        booking.setEnd(now.minusDays(1));
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return itemMapper.toDto(item, 1L, summary, comments);
+    }
+
+    @Benchmark
+    public BookingOutputDto bookingToOutputDto() {
+        return bookingMapper.toOutputDtoFromEntity(booking);
+    }
+}
@@ -0,0 +1,180 @@
+package ru.practicum.shareit.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Fills an empty ShareIt schema with synthetic data through JDBC batches. Owners, requesters, bookers and booked
+ * items follow a Zipf distribution, bookings are spread over a year before and after now, comments are written
+ * by bookers of past bookings. Approved bookings of one item never overlap, a booking that would overlap is
+ * rejected if it is past and left waiting otherwise, as EXCL_BOOKING_APPROVED_OVERLAP requires on PostgreSQL.
+ * Works on PostgreSQL and on H2 in PostgreSQL mode.
+ */
+@Slf4j
+public class DataGenerator {
+    private static final String[] ITEM_NAMES = {"Дрель", "Перфоратор", "Пила", "Лестница", "Палатка", "Велосипед",
+            "Шуруповерт", "Проектор", "Байдарка", "Сноуборд"};
+    private static final BookingStatus[] STATUSES = {BookingStatus.APPROVED, BookingStatus.APPROVED,
+            BookingStatus.WAITING, BookingStatus.REJECTED};
+    private static final int BATCH_SIZE = 1_000;
+    private static final int ITEMS_PER_REQUEST_ANSWER = 10;
+
+    private final JdbcTemplate jdbc;
+    private final DataVolumes volumes;
+    private final Random random = new Random(42);
+    private final LocalDateTime now = LocalDateTime.now();
+
+    public DataGenerator(JdbcTemplate jdbc, DataVolumes volumes) {
+        this.jdbc = jdbc;
+        this.volumes = volumes;
+    }
+
+    public void generate() {
+        long startedAt = System.currentTimeMillis();
+        Zipf users = new Zipf(volumes.getUsers(), volumes.getSkew());
+        Zipf items = new Zipf(volumes.getItems(), volumes.getSkew());
+
+        Batch userRows = new Batch("INSERT INTO users (id, name, email) VALUES (?, ?, ?)");
+        for (long id = 1; id <= volumes.getUsers(); id++) {
+            userRows.add(id, "user" + id, "user" + id + "@shareit.ru");
+        }
+        userRows.flush();
+
+        long[] requesters = new long[volumes.getRequests() + 1];
+        Batch requestRows = new Batch("INSERT INTO item_requests (id, description, owner_id, created) VALUES (?, ?, ?, ?)");
+        for (int id = 1; id <= volumes.getRequests(); id++) {
+            requesters[id] = users.next(random);
+            requestRows.add((long) id, "Нужен " + itemName(id).toLowerCase(), requesters[id], pastTime());
+        }
+        requestRows.flush();
+
+        long[] owners = new long[volumes.getItems() + 1];
+        Batch itemRows = new Batch("INSERT INTO items (id, name, description, available, owner_id, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)");
+        //expired summaries are recalculated on first read, like rows created by the schema backfill
+        Batch summaryRows = new Batch("INSERT INTO item_booking_summary (item_id, valid_until) " +
+                "VALUES (?, TIMESTAMP '0001-01-01 00:00:00')");
+        for (int id = 1; id <= volumes.getItems(); id++) {
+            owners[id] = users.next(random);
+            Long requestId = null;
+            if (volumes.getRequests() > 0 && id % ITEMS_PER_REQUEST_ANSWER == 0) {
+                long candidate = 1 + random.nextInt(volumes.getRequests());
+                requestId = requesters[(int) candidate] != owners[id] ? candidate : null;
+            }
+            String name = itemName(id);
+            itemRows.add((long) id, name + " " + id, name + " в хорошем состоянии", id % 5 != 0, owners[id], requestId);
+            summaryRows.add((long) id);
+        }
+        itemRows.flush();
+        summaryRows.flush();
+
+        List<long[]> pastBookings = new ArrayList<>();
+        Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> approved = new HashMap<>();
+        Batch bookingRows = new Batch("INSERT INTO booking (id, start_time, end_time, item_id, booker_id, owner_id, " +
+                "status) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        for (long id = 1; id <= volumes.getBookings(); id++) {
+            long itemId = items.next(random);
+            long bookerId = users.next(random);
+            while (bookerId == owners[(int) itemId] && volumes.getUsers() > 1) {
+                bookerId = 1 + random.nextInt(volumes.getUsers());
+            }
+            LocalDateTime start = now.plusHours(random.nextInt(2 * 365 * 24) - 365 * 24);
+            LocalDateTime end = start.plusHours(1 + random.nextInt(7 * 24));
+            boolean past = !end.isAfter(now);
+            BookingStatus status = past ? BookingStatus.APPROVED : STATUSES[random.nextInt(STATUSES.length)];
+            if (status == BookingStatus.APPROVED) {
+                NavigableMap<LocalDateTime, LocalDateTime> slots = approved.computeIfAbsent(itemId, key -> new TreeMap<>());
+                if (overlaps(slots, start, end)) {
+                    status = past ? BookingStatus.REJECTED : BookingStatus.WAITING;
+                } else {
+                    slots.put(start, end);
+                }
+            }
+            if (past && status != BookingStatus.REJECTED) {
+                pastBookings.add(new long[]{bookerId, itemId});
+            }
+            bookingRows.add(id, Timestamp.valueOf(start), Timestamp.valueOf(end), itemId, bookerId, owners[(int) itemId],
+                    status.name());
+        }
+        bookingRows.flush();
+        checkApprovedOverlaps();
+
+        Batch commentRows = new Batch("INSERT INTO comments (id, text, author_id, item_id, created) VALUES (?, ?, ?, ?, ?)");
+        int comments = pastBookings.isEmpty() ? 0 : volumes.getComments();
+        for (long id = 1; id <= comments; id++) {
+            long[] booking = pastBookings.get(random.nextInt(pastBookings.size()));
+            commentRows.add(id, "Отзыв " + id, booking[0], booking[1], pastTime());
+        }
+        commentRows.flush();
+
+        //ids were set explicitly, rows created through the API continue after them
+        restartIdentity("users", volumes.getUsers());
+        restartIdentity("item_requests", volumes.getRequests());
+        restartIdentity("items", volumes.getItems());
+        restartIdentity("booking", volumes.getBookings());
+        restartIdentity("comments", comments);
+        log.info("Сгенерированы данные {} за {} мс", volumes, System.currentTimeMillis() - startedAt);
+    }
+
+    //approved intervals of an item do not overlap, so the one starting last before end is the only candidate
+    private boolean overlaps(NavigableMap<LocalDateTime, LocalDateTime> slots, LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> previous = slots.lowerEntry(end);
+        return previous != null && previous.getValue().isAfter(start);
+    }
+
+    //H2 has no exclusion constraints, the same rule is checked here so seeding fails on H2 wherever PostgreSQL would
+    private void checkApprovedOverlaps() {
+        Long overlapping = jdbc.queryForObject("SELECT COUNT(*) FROM (SELECT start_time, " +
+                "LAG(end_time) OVER (PARTITION BY item_id ORDER BY start_time) AS previous_end " +
+                "FROM booking WHERE status = 'APPROVED') approved WHERE start_time < previous_end", Long.class);
+        if (overlapping != null && overlapping > 0) {
+            throw new IllegalStateException("Сгенерировано " + overlapping + " пересекающихся одобренных бронирований");
+        }
+    }
+
+    private String itemName(long id) {
+        return ITEM_NAMES[(int) (id % ITEM_NAMES.length)];
+    }
+
+    private Timestamp pastTime() {
+        return Timestamp.valueOf(now.minusMinutes(1 + random.nextInt(365 * 24 * 60)));
+    }
+
+    private void restartIdentity(String table, long rows) {
+        jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (rows + 1));
+    }
+
+    private class Batch {
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        Batch(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbc.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+}
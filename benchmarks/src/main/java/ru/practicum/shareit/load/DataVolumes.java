@@ -0,0 +1,22 @@
+package ru.practicum.shareit.load;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class DataVolumes {
+    @Builder.Default
+    private int users = 1_000;
+    @Builder.Default
+    private int items = 10_000;
+    @Builder.Default
+    private int requests = 2_000;
+    @Builder.Default
+    private int bookings = 100_000;
+    @Builder.Default
+    private int comments = 20_000;
+    //Zipf exponent for picking users and items, 0 is uniform, around 1 a few users and items get most of the activity
+    @Builder.Default
+    private double skew = 1.0;
+}
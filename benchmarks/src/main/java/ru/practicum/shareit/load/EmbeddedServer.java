@@ -0,0 +1,35 @@
+package ru.practicum.shareit.load;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+//ShareIt server in this JVM on an in-memory H2 database in PostgreSQL mode
+public final class EmbeddedServer {
+    //passed as command line arguments, they have to override the PostgreSQL settings of application.properties
+    private static final String[] ARGUMENTS = {
+            "--spring.datasource.driverClassName=org.h2.Driver",
+            "--spring.datasource.url=jdbc:h2:mem:shareit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                    + "DEFAULT_NULL_ORDERING=HIGH",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.sql.init.platform=h2",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--logging.level.ru.practicum.shareit.load=INFO"
+    };
+
+    private EmbeddedServer() {
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType type, String... arguments) {
+        return new SpringApplicationBuilder(ShareItServer.class)
+                .web(type)
+                .run(Stream.concat(Arrays.stream(ARGUMENTS), Arrays.stream(arguments)).toArray(String[]::new));
+    }
+}
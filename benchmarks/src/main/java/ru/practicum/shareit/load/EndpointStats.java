@@ -0,0 +1,60 @@
+package ru.practicum.shareit.load;
+
+import java.util.Arrays;
+
+//latencies and outcomes of one endpoint, filled by a single worker and merged after the run
+public class EndpointStats {
+    private long[] latencies = new long[1024];
+    private int count;
+    private int clientErrors;
+    private int failures;
+
+    public void record(long latencyNanos, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (status >= 500) {
+            failures++;
+        } else if (status >= 400) {
+            clientErrors++;
+        }
+    }
+
+    //requests that got no response at all
+    public void recordFailure(long latencyNanos) {
+        record(latencyNanos, 599);
+    }
+
+    public void merge(EndpointStats other) {
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, count + other.count);
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        clientErrors += other.clientErrors;
+        failures += other.failures;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getClientErrors() {
+        return clientErrors;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    //nearest-rank percentile in milliseconds, sorts the recorded latencies on first use
+    public double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(latencies, 0, count);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return latencies[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+}
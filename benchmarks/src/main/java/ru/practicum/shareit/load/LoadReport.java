@@ -0,0 +1,39 @@
+package ru.practicum.shareit.load;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+
+public class LoadReport {
+    private static final String ROW = "%-22s %9s %7s %7s %10s %9s %9s %9s%n";
+    private static final String VALUES = "%-22s %9d %7d %7d %10.1f %9.1f %9.1f %9.1f%n";
+
+    private final Map<String, EndpointStats> endpoints;
+    private final Duration duration;
+
+    public LoadReport(Map<String, EndpointStats> endpoints, Duration duration) {
+        this.endpoints = endpoints;
+        this.duration = duration;
+    }
+
+    public Map<String, EndpointStats> getEndpoints() {
+        return endpoints;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = duration.toMillis() / 1000.0;
+        out.printf(ROW, "endpoint", "requests", "4xx", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        EndpointStats total = new EndpointStats();
+        endpoints.forEach((name, stats) -> {
+            print(out, name, stats, seconds);
+            total.merge(stats);
+        });
+        print(out, "total", total, seconds);
+    }
+
+    private static void print(PrintStream out, String name, EndpointStats stats, double seconds) {
+        out.printf(VALUES, name, stats.getCount(), stats.getClientErrors(), stats.getFailures(),
+                stats.getCount() / seconds, stats.percentileMillis(50), stats.percentileMillis(99),
+                stats.percentileMillis(100));
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Closed-loop load: every worker thread sends the next request of the scenario as soon as the previous one
+ * is answered. Latencies are recorded only after the warmup.
+ */
+@Slf4j
+public class LoadRunner {
+    private final LoadTestConfig config;
+    private final LoadScenario scenario;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public LoadRunner(LoadTestConfig config, LoadScenario scenario) {
+        this.config = config;
+        this.scenario = scenario;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        long measureFrom = System.nanoTime() + config.getWarmup().toNanos();
+        long stopAt = measureFrom + config.getDuration().toNanos();
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < config.getThreads(); i++) {
+            Worker worker = new Worker(new Random(i), measureFrom, stopAt);
+            worker.setName("load-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Нагрузка: {} потоков, прогрев {} с, замер {} с, цель {}", config.getThreads(),
+                config.getWarmup().toSeconds(), config.getDuration().toSeconds(), config.getTarget());
+
+        Map<String, EndpointStats> merged = new LinkedHashMap<>();
+        scenario.getOperations().forEach(operation -> merged.put(operation.getName(), new EndpointStats()));
+        for (Worker worker : workers) {
+            worker.join();
+            worker.stats.forEach((name, stats) -> merged.get(name).merge(stats));
+        }
+        return new LoadReport(merged, config.getDuration());
+    }
+
+    private class Worker extends Thread {
+        private final Random random;
+        private final long measureFrom;
+        private final long stopAt;
+        private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+        Worker(Random random, long measureFrom, long stopAt) {
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+        }
+
+        @Override
+        public void run() {
+            while (System.nanoTime() < stopAt) {
+                LoadScenario.Operation operation = scenario.next(random);
+                HttpRequest request = scenario.request(operation, random);
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = -1;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long end = System.nanoTime();
+                if (start >= measureFrom && end <= stopAt) {
+                    EndpointStats endpoint = stats.computeIfAbsent(operation.getName(), name -> new EndpointStats());
+                    if (status < 0) {
+                        endpoint.recordFailure(end - start);
+                    } else {
+                        endpoint.record(end - start, status);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Weighted mix of gateway calls. Users and items are drawn with the same skew the data was generated with,
+ * so hot owners and popular items get most of the traffic.
+ */
+public class LoadScenario {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] SEARCH_TEXTS = {"дрель", "пила", "палатка", "велосипед", "хорошем", "проектор 1"};
+
+    private final String target;
+    private final Zipf users;
+    private final Zipf items;
+    private final List<Operation> operations = new ArrayList<>();
+    private int totalWeight;
+
+    public LoadScenario(String target, DataVolumes volumes) {
+        this.target = target;
+        this.users = new Zipf(volumes.getUsers(), volumes.getSkew());
+        this.items = new Zipf(volumes.getItems(), volumes.getSkew());
+        add("GET /items/{id}", 25, (random, userId) -> get("/items/" + items.next(random), userId));
+        add("GET /items", 15, (random, userId) -> get("/items", userId));
+        add("GET /items/search", 15, (random, userId) ->
+                get("/items/search?text=" + encode(SEARCH_TEXTS[random.nextInt(SEARCH_TEXTS.length)]) +
+                        "&from=0&size=20", userId));
+        add("GET /bookings", 10, (random, userId) -> get("/bookings?state=ALL&from=0&size=20", userId));
+        add("GET /bookings/owner", 10, (random, userId) -> get("/bookings/owner?state=ALL&from=0&size=20", userId));
+        add("GET /requests", 5, (random, userId) -> get("/requests", userId));
+        add("GET /requests/all", 5, (random, userId) -> get("/requests/all?from=0&size=20", userId));
+        add("GET /users/{id}", 10, (random, userId) -> get("/users/" + userId, userId));
+        add("POST /bookings", 5, this::addBooking);
+    }
+
+    public Operation next(Random random) {
+        int point = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            point -= operation.weight;
+            if (point < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Пустой сценарий нагрузки");
+    }
+
+    public HttpRequest request(Operation operation, Random random) {
+        return operation.request.apply(random, users.next(random));
+    }
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    private void add(String name, int weight, BiFunction<Random, Long, HttpRequest> request) {
+        operations.add(new Operation(name, weight, request));
+        totalWeight += weight;
+    }
+
+    private HttpRequest addBooking(Random random, Long userId) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1 + random.nextInt(365));
+        String body = "{\"itemId\":" + items.next(random) + ",\"start\":\"" + start +
+                "\",\"end\":\"" + start.plusDays(1 + random.nextInt(7)) + "\"}";
+        return HttpRequest.newBuilder(URI.create(target + "/bookings"))
+                .timeout(TIMEOUT)
+                .header(USER_HEADER, String.valueOf(userId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path, long userId) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+                .timeout(TIMEOUT)
+                .header(USER_HEADER, String.valueOf(userId))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private static String encode(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+
+    public static class Operation {
+        private final String name;
+        private final int weight;
+        private final BiFunction<Random, Long, HttpRequest> request;
+
+        Operation(String name, int weight, BiFunction<Random, Long, HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Seeds the database and drives the gateway with {@link LoadScenario}, then prints latency percentiles
+ * and throughput per endpoint.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar ru.practicum.shareit.load.LoadTest \
+ *     --jdbc-url=jdbc:postgresql://localhost:6541/shareIt --jdbc-user=... --jdbc-password=... \
+ *     --users=10000 --items=100000 --bookings=1000000 --threads=64 --duration=120
+ * </pre>
+ * Seeding expects an empty schema created by the server. Without --jdbc-url and --embedded the data already
+ * in the database is used, the volumes then have to match it.
+ */
+@Slf4j
+public class LoadTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        ConfigurableApplicationContext server = null;
+        if (config.isEmbedded()) {
+            server = EmbeddedServer.start(WebApplicationType.SERVLET, "--server.port=" + config.getServerPort());
+            new DataGenerator(server.getBean(JdbcTemplate.class), config.getVolumes()).generate();
+        } else if (!config.getJdbcUrl().isEmpty()) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(config.getJdbcUrl(),
+                    config.getJdbcUser(), config.getJdbcPassword());
+            new DataGenerator(new JdbcTemplate(dataSource), config.getVolumes()).generate();
+        }
+
+        LoadReport report = new LoadRunner(config, new LoadScenario(config.getTarget(), config.getVolumes())).run();
+        report.print(System.out);
+        if (server != null) {
+            server.close();
+        }
+    }
+}
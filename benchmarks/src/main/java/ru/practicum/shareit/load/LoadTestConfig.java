@@ -0,0 +1,73 @@
+package ru.practicum.shareit.load;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Builder
+public class LoadTestConfig {
+    private String target;
+    //database to seed before the run, nothing is seeded when it is empty and the server is not embedded
+    private String jdbcUrl;
+    private String jdbcUser;
+    private String jdbcPassword;
+    //start the server in this JVM on H2 at serverPort and seed it, the gateway has to point at that port
+    private boolean embedded;
+    private int serverPort;
+    private DataVolumes volumes;
+    private int threads;
+    private Duration warmup;
+    private Duration duration;
+
+    //arguments look like --threads=64, unknown keys are rejected
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>(Map.of(
+                "target", "http://localhost:8080",
+                "jdbc-user", "",
+                "jdbc-password", "",
+                "embedded", "false",
+                "server-port", "9090",
+                "threads", "32",
+                "warmup", "10",
+                "duration", "60"));
+        DataVolumes defaults = DataVolumes.builder().build();
+        values.put("users", String.valueOf(defaults.getUsers()));
+        values.put("items", String.valueOf(defaults.getItems()));
+        values.put("requests", String.valueOf(defaults.getRequests()));
+        values.put("bookings", String.valueOf(defaults.getBookings()));
+        values.put("comments", String.valueOf(defaults.getComments()));
+        values.put("skew", String.valueOf(defaults.getSkew()));
+        values.put("jdbc-url", "");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String key = arg.startsWith("--") && separator > 2 ? arg.substring(2, separator) : null;
+            if (key == null || !values.containsKey(key)) {
+                throw new IllegalArgumentException("Неизвестный аргумент: " + arg);
+            }
+            values.put(key, arg.substring(separator + 1));
+        }
+        return LoadTestConfig.builder()
+                .target(values.get("target"))
+                .jdbcUrl(values.get("jdbc-url"))
+                .jdbcUser(values.get("jdbc-user"))
+                .jdbcPassword(values.get("jdbc-password"))
+                .embedded(Boolean.parseBoolean(values.get("embedded")))
+                .serverPort(Integer.parseInt(values.get("server-port")))
+                .volumes(DataVolumes.builder()
+                        .users(Integer.parseInt(values.get("users")))
+                        .items(Integer.parseInt(values.get("items")))
+                        .requests(Integer.parseInt(values.get("requests")))
+                        .bookings(Integer.parseInt(values.get("bookings")))
+                        .comments(Integer.parseInt(values.get("comments")))
+                        .skew(Double.parseDouble(values.get("skew")))
+                        .build())
+                .threads(Integer.parseInt(values.get("threads")))
+                .warmup(Duration.ofSeconds(Long.parseLong(values.get("warmup"))))
+                .duration(Duration.ofSeconds(Long.parseLong(values.get("duration"))))
+                .build();
+    }
+}
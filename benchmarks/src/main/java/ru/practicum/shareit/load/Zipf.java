@@ -0,0 +1,30 @@
+package ru.practicum.shareit.load;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//draws ids 1..n, id k is drawn with probability proportional to 1 / k^skew
+public class Zipf {
+    private final double[] cumulative;
+
+    public Zipf(int n, double skew) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1 / Math.pow(k, skew);
+            cumulative[k - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public long next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return (index >= 0 ? index : -index - 1) + 1L;
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.config;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+//log-based span export, enabled with logging.level.ru.practicum.shareit.config.SpanLogHandler=DEBUG
+@Slf4j
+@Component
+public class SpanLogHandler extends SpanHandler {
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.FINISHED && log.isDebugEnabled()) {
+            log.debug("span {} {}/{} <- {} {} за {} мкс", span.localServiceName(), span.traceId(), span.id(),
+                    span.parentId(), span.name(), span.finishTimestamp() - span.startTimestamp());
+        }
+        return true;
+    }
+}
@@ -2,12 +2,12 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.enums.BookingStatus;
 
@@ -18,16 +18,15 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .baseUrl(serverUrl + API_PREFIX)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getAllBookingsByBooker(long bookerId, BookingStatus state, Integer from, Integer size) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllBookingsByBooker(long bookerId, BookingStatus state, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -36,7 +35,7 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", bookerId, parameters);
     }
 
-    public ResponseEntity<Object> getAllBookingsByOwner(long bookerId, BookingStatus state, Integer from, Integer size) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllBookingsByOwner(long bookerId, BookingStatus state, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -45,15 +44,33 @@ public class BookingClient extends BaseClient {
         return get("/owner?state={state}&from={from}&size={size}", bookerId, parameters);
     }
 
-    public ResponseEntity<Object> addBooking(long userId, BookingInputDto requestDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getBookingsPageByBooker(long bookerId, BookingStatus state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?state={state}&cursor={cursor}&size={size}", bookerId, parameters);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> getBookingsPageByOwner(long ownerId, BookingStatus state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}", ownerId, parameters);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> addBooking(long userId, BookingInputDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBookingById(long userId, Long bookingId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getBookingById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> approveBooking(long userId, Boolean approved, Long bookingId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> approveBooking(long userId, Boolean approved, Long bookingId) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved.toString()
         );
@@ -6,10 +6,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.enums.BookingStatus;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 
 @Controller
@@ -21,26 +24,26 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> addBooking(@RequestHeader("X-Sharer-User-Id") long bookerId,
+    public Mono<ResponseEntity<StreamingResponseBody>> addBooking(@RequestHeader("X-Sharer-User-Id") long bookerId,
                                              @Valid @RequestBody BookingInputDto bookingInputDto) {
         return bookingClient.addBooking(bookerId, bookingInputDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader("X-Sharer-User-Id") long ownerId,
+    public Mono<ResponseEntity<StreamingResponseBody>> approveBooking(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                                  @RequestParam Boolean approved,
                                                  @PathVariable Long bookingId) {
         return bookingClient.approveBooking(ownerId, approved, bookingId);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingById(@RequestHeader("X-Sharer-User-Id") long bookerId,
+    public Mono<ResponseEntity<StreamingResponseBody>> getBookingById(@RequestHeader("X-Sharer-User-Id") long bookerId,
                                                  @PathVariable Long bookingId) {
         return bookingClient.getBookingById(bookerId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllBookingsByBooker(@RequestHeader("X-Sharer-User-Id") long bookerId,
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllBookingsByBooker(@RequestHeader("X-Sharer-User-Id") long bookerId,
                                                          @RequestParam(required = false, defaultValue = "ALL")
                                                          BookingStatus state,
                                                          @RequestParam(defaultValue = "0") @Min(0) Integer from,
@@ -49,10 +52,27 @@ public class BookingController {
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllBookingsByOwner(@RequestHeader("X-Sharer-User-Id") long bookerId,
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllBookingsByOwner(@RequestHeader("X-Sharer-User-Id") long bookerId,
                                                         @RequestParam(required = false, defaultValue = "ALL") BookingStatus state,
                                                         @RequestParam(defaultValue = "0") @Min(0) Integer from,
                                                         @RequestParam(defaultValue = "10") @Min(1) Integer size) {
         return bookingClient.getAllBookingsByOwner(bookerId, state, from, size);
     }
+
+    @GetMapping(params = "cursor")
+    public Mono<ResponseEntity<StreamingResponseBody>> getBookingsPageByBooker(@RequestHeader("X-Sharer-User-Id") long bookerId,
+                                                          @RequestParam(required = false, defaultValue = "ALL")
+                                                          BookingStatus state,
+                                                          @RequestParam(defaultValue = "") String cursor,
+                                                          @RequestParam(defaultValue = "10") @Min(1) @Max(1000) Integer size) {
+        return bookingClient.getBookingsPageByBooker(bookerId, state, cursor, size);
+    }
+
+    @GetMapping(path = "/owner", params = "cursor")
+    public Mono<ResponseEntity<StreamingResponseBody>> getBookingsPageByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                         @RequestParam(required = false, defaultValue = "ALL") BookingStatus state,
+                                                         @RequestParam(defaultValue = "") String cursor,
+                                                         @RequestParam(defaultValue = "10") @Min(1) @Max(1000) Integer size) {
+        return bookingClient.getBookingsPageByOwner(ownerId, state, cursor, size);
+    }
 }
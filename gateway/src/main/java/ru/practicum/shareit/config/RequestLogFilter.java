@@ -0,0 +1,41 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Slf4j
+@Component
+public class RequestLogFilter extends OncePerRequestFilter {
+    private static final String START_ATTRIBUTE = RequestLogFilter.class.getName() + ".start";
+
+    //one summary line per request, payloads are logged by controllers at DEBUG only
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            //streamed and reactive responses are finished in the async dispatch
+            if (!request.isAsyncStarted()) {
+                long millis = (System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE)) / 1_000_000;
+                log.info("{} {} -> {} за {} мс", request.getMethod(), request.getRequestURI(),
+                        response.getStatus(), millis);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
@@ -2,11 +2,12 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -18,44 +19,49 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .baseUrl(serverUrl + API_PREFIX)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getAllItemsByOwner(long userId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllItemsByOwner(long userId) {
 
         return get("", userId);
     }
 
-    public ResponseEntity<Object> addItem(ItemDto requestDto, long userId) {
+    public Mono<ResponseEntity<Flux<String>>> streamAllItemsByOwner(long userId) {
+        return stream("", userId);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> addItem(ItemDto requestDto, long userId) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> deleteItem(long id, long userId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> deleteItem(long id, long userId) {
         return delete("/" + id, userId);
     }
 
-    public ResponseEntity<Object> patchItem(long id, ItemDto requestDto, long userId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> patchItem(long id, ItemDto requestDto, long userId) {
         return patch("/" + id, userId, requestDto);
     }
 
-    public ResponseEntity<Object> addComment(long itemId, long userId, CommentDto requestDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> addComment(long itemId, long userId, CommentDto requestDto) {
         return post("/" + itemId + "/comment", userId, requestDto);
     }
 
-    public ResponseEntity<Object> searchItem(String text) {
+    public Mono<ResponseEntity<StreamingResponseBody>> searchItem(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
-                "text", text
+                "text", text,
+                "from", from,
+                "size", size
         );
-        return get("/search?text={text}", parameters);
+        return get("/search?text={text}&from={from}&size={size}", parameters);
     }
 
-    public ResponseEntity<Object> getItem(long userId, Long bookingId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getItem(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 }
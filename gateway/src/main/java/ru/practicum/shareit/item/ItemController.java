@@ -2,13 +2,20 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 
+@Validated
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -17,63 +24,67 @@ public class ItemController {
     private final ItemClient client;
 
     @GetMapping
-    public ResponseEntity<Object> getAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("id владельца для запроса getAllItemsByOwner: {}", userId);
-        ResponseEntity<Object> allItems = client.getAllItemsByOwner(userId);
-        log.info("Результат запроса getAllItemsByOwner: {}", allItems);
-        return allItems;
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.debug("id владельца для запроса getAllItemsByOwner: {}", userId);
+        return client.getAllItemsByOwner(userId)
+                .doOnNext(allItems -> log.debug("Результат запроса getAllItemsByOwner: {}", allItems));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<String>>> streamAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.debug("id владельца для потоковой выгрузки getAllItemsByOwner: {}", userId);
+        return client.streamAllItemsByOwner(userId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<StreamingResponseBody>> getItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                           @PathVariable long id) {
-        log.info("id для запроса getItem: {}", id);
-        ResponseEntity<Object> item = client.getItem(userId, id);
-        log.info("Результат запроса getItem: {}", item);
-        return item;
+        log.debug("id для запроса getItem: {}", id);
+        return client.getItem(userId, id)
+                .doOnNext(item -> log.debug("Результат запроса getItem: {}", item));
     }
 
+    //clients without paging parameters get every match as before, up to a cap
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestParam String text) {
-        log.info("text для запроса searchItem: {}", text);
-        ResponseEntity<Object> result = client.searchItem(text);
-        log.info("Результат запроса searchItem: {}", result);
-        return result;
+    public Mono<ResponseEntity<StreamingResponseBody>> searchItem(@RequestParam String text,
+                                             @RequestParam(defaultValue = "0") @Min(0) Integer from,
+                                             @RequestParam(defaultValue = "1000") @Min(1) Integer size) {
+        log.debug("text, from, size для запроса searchItem: {}, {}, {}", text, from, size);
+        return client.searchItem(text, from, size)
+                .doOnNext(result -> log.debug("Результат запроса searchItem: {}", result));
     }
 
     @PostMapping()
-    public ResponseEntity<Object> addItem(@Valid @RequestBody ItemDto item,
+    public Mono<ResponseEntity<StreamingResponseBody>> addItem(@Valid @RequestBody ItemDto item,
                                           @RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("item и id владельца для запроса addItem: {}, {}", item, userId);
-        ResponseEntity<Object> result = client.addItem(item, userId);
-        log.info("Результат запроса addItem: {}", result);
-        return result;
+        log.debug("item и id владельца для запроса addItem: {}, {}", item, userId);
+        return client.addItem(item, userId)
+                .doOnNext(result -> log.debug("Результат запроса addItem: {}", result));
     }
 
     @DeleteMapping("/{id}")
-    public void deleteItem(@PathVariable long id, @RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("Удаление предмета с id {} и id владельца {} начато", id, userId);
-        client.deleteItem(id, userId);
-        log.info("Удаление предмета с id {} и id владельца {} завершено", id, userId);
+    public Mono<Void> deleteItem(@PathVariable long id, @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.debug("Удаление предмета с id {} и id владельца {} начато", id, userId);
+        return client.deleteItem(id, userId)
+                .doOnNext(result -> log.debug("Удаление предмета с id {} и id владельца {} завершено", id, userId))
+                .then();
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> patchItem(@PathVariable long id,
+    public Mono<ResponseEntity<StreamingResponseBody>> patchItem(@PathVariable long id,
                                             @RequestBody ItemDto patch,
                                             @RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("patchItem: id {}, item {}, userId {} патч начат", id, patch, userId);
-        ResponseEntity<Object> itemDto = client.patchItem(id, patch, userId);
-        log.info("Патч завершен. Результат: {}", itemDto);
-        return itemDto;
+        log.debug("patchItem: id {}, item {}, userId {} патч начат", id, patch, userId);
+        return client.patchItem(id, patch, userId)
+                .doOnNext(itemDto -> log.debug("Патч завершен. Результат: {}", itemDto));
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@PathVariable long itemId,
+    public Mono<ResponseEntity<StreamingResponseBody>> addComment(@PathVariable long itemId,
                                              @RequestHeader("X-Sharer-User-Id") long userId,
                                              @RequestBody CommentDto commentDto) {
-        log.info("addComment: id {}, commentDto {}, userId {} патч начат", itemId, commentDto, userId);
-        ResponseEntity<Object> result = client.addComment(itemId, userId, commentDto);
-        log.info("Добавление комметария завершено. Результат: {}", result);
-        return result;
+        log.debug("addComment: id {}, commentDto {}, userId {} патч начат", itemId, commentDto, userId);
+        return client.addComment(itemId, userId, commentDto)
+                .doOnNext(result -> log.debug("Добавление комметария завершено. Результат: {}", result));
     }
 }
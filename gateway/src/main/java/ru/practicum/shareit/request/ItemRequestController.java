@@ -2,9 +2,13 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
@@ -19,36 +23,38 @@ public class ItemRequestController {
     private final ItemRequestClient client;
 
     @PostMapping
-    public ResponseEntity<Object> addRequest(@Valid @RequestBody ItemRequestDto dto, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("addRequest started: dto {}, userId {}", dto, userId);
-        ResponseEntity<Object> itemRequestDto = client.addRequest(dto, userId);
-        log.info("addRequest finished");
-        return itemRequestDto;
+    public Mono<ResponseEntity<StreamingResponseBody>> addRequest(@Valid @RequestBody ItemRequestDto dto, @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("addRequest started: dto {}, userId {}", dto, userId);
+        return client.addRequest(dto, userId)
+                .doOnNext(itemRequestDto -> log.debug("addRequest finished"));
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("getAllRequests: userId {}", userId);
-        ResponseEntity<Object> itemRequestDtos = client.getAllRequests(userId);
-        log.info("getAllRequests finished");
-        return itemRequestDtos;
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("getAllRequests: userId {}", userId);
+        return client.getAllRequests(userId)
+                .doOnNext(itemRequestDtos -> log.debug("getAllRequests finished"));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<String>>> streamAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("streamAllRequests: userId {}", userId);
+        return client.streamAllRequests(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequestsPageable(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllRequestsPageable(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                          @RequestParam(defaultValue = "0") @Min(0) Integer from,
                                                          @RequestParam(defaultValue = "10") @Min(1) Integer size) {
-        log.info("getAllRequestsPageable started: userId {}, from {}, size {}", userId, from, size);
-        ResponseEntity<Object> itemRequestDtos = client.getAllRequestsPageable(userId, from, size);
-        log.info("getAllRequestsPageable finished");
-        return itemRequestDtos;
+        log.debug("getAllRequestsPageable started: userId {}, from {}, size {}", userId, from, size);
+        return client.getAllRequestsPageable(userId, from, size)
+                .doOnNext(itemRequestDtos -> log.debug("getAllRequestsPageable finished"));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getRequest(@PathVariable("id") Long requestId, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("getRequest started: requestId {}, userId {}", requestId, userId);
-        ResponseEntity<Object> itemRequestDto = client.getRequest(requestId, userId);
-        log.info("getRequest finished");
-        return itemRequestDto;
+    public Mono<ResponseEntity<StreamingResponseBody>> getRequest(@PathVariable("id") Long requestId, @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("getRequest started: requestId {}, userId {}", requestId, userId);
+        return client.getRequest(requestId, userId)
+                .doOnNext(itemRequestDto -> log.debug("getRequest finished"));
     }
 }
@@ -2,11 +2,12 @@ package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
@@ -15,33 +16,36 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .baseUrl(serverUrl + API_PREFIX)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllUsers() {
         return get("");
     }
 
+    public Mono<ResponseEntity<Flux<String>>> streamAllUsers() {
+        return stream("", null);
+    }
+
 
-    public ResponseEntity<Object> addUser(UserDto requestDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> addUser(UserDto requestDto) {
         return post("", requestDto);
     }
 
-    public ResponseEntity<Object> deleteUser(long id) {
+    public Mono<ResponseEntity<StreamingResponseBody>> deleteUser(long id) {
         return delete("/" + id);
     }
 
-    public ResponseEntity<Object> patchUser(long id, UserDto requestDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> patchUser(long id, UserDto requestDto) {
         return patch("/" + id, requestDto);
     }
 
-    public ResponseEntity<Object> getUser(long id) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getUser(long id) {
         return get("/" + id);
     }
 }
@@ -2,8 +2,12 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
@@ -16,41 +20,44 @@ public class UserController {
     private final UserClient client;
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
-        log.info("Обработка запроса getAllUsers начата");
-        ResponseEntity<Object> users = client.getAllUsers();
-        log.info("Результат запроса getAllUsers: {}", users);
-        return users;
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllUsers() {
+        log.debug("Обработка запроса getAllUsers начата");
+        return client.getAllUsers()
+                .doOnNext(users -> log.debug("Результат запроса getAllUsers: {}", users));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<String>>> streamAllUsers() {
+        log.debug("Потоковая выгрузка getAllUsers начата");
+        return client.streamAllUsers();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUser(@PathVariable long id) {
-        log.info("id для запроса getUser: {}", id);
-        ResponseEntity<Object> userDto = client.getUser(id);
-        log.info("Результат запроса getUser: {}", userDto);
-        return userDto;
+    public Mono<ResponseEntity<StreamingResponseBody>> getUser(@PathVariable long id) {
+        log.debug("id для запроса getUser: {}", id);
+        return client.getUser(id)
+                .doOnNext(userDto -> log.debug("Результат запроса getUser: {}", userDto));
     }
 
     @PostMapping()
-    public ResponseEntity<Object> addUser(@Valid @RequestBody UserDto user) {
-        log.info("user для запроса addUser: {}", user);
-        ResponseEntity<Object> userDto = client.addUser(user);
-        log.info("Результат запроса addUser: {}", userDto);
-        return userDto;
+    public Mono<ResponseEntity<StreamingResponseBody>> addUser(@Valid @RequestBody UserDto user) {
+        log.debug("user для запроса addUser: {}", user);
+        return client.addUser(user)
+                .doOnNext(userDto -> log.debug("Результат запроса addUser: {}", userDto));
     }
 
     @DeleteMapping("/{id}")
-    public void deleteUser(@PathVariable long id) {
-        log.info("Удаление пользователя с id {} начато", id);
-        client.deleteUser(id);
-        log.info("Удаление пользователя с id {} завершено", id);
+    public Mono<Void> deleteUser(@PathVariable long id) {
+        log.debug("Удаление пользователя с id {} начато", id);
+        return client.deleteUser(id)
+                .doOnNext(result -> log.debug("Удаление пользователя с id {} завершено", id))
+                .then();
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> patchUser(@PathVariable long id, @RequestBody UserDto user) {
-        log.info("patchUser: id {}, user {} патч начат", id, user);
-        ResponseEntity<Object> userDto = client.patchUser(id, user);
-        log.info("Патч завершен. Результат: {}", userDto);
-        return userDto;
+    public Mono<ResponseEntity<StreamingResponseBody>> patchUser(@PathVariable long id, @RequestBody UserDto user) {
+        log.debug("patchUser: id {}, user {} патч начат", id, user);
+        return client.patchUser(id, user)
+                .doOnNext(userDto -> log.debug("Патч завершен. Результат: {}", userDto));
     }
 }
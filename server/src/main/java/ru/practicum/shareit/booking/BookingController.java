@@ -6,6 +6,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.enums.BookingStatus;
 
@@ -54,4 +55,20 @@ public class BookingController {
                                                         @RequestParam(defaultValue = "10") Integer size) {
         return service.getAllBookingsByOwnerAndState(bookerId, state, from, size);
     }
+
+    @GetMapping(params = "cursor")
+    public BookingPageDto getBookingsPageByBooker(@RequestHeader("X-Sharer-User-Id") long bookerId,
+                                                  @RequestParam(required = false, defaultValue = "ALL") BookingStatus state,
+                                                  @RequestParam(defaultValue = "") String cursor,
+                                                  @RequestParam(defaultValue = "10") Integer size) {
+        return service.getBookingsPageByBookerAndState(bookerId, state, cursor, size);
+    }
+
+    @GetMapping(path = "/owner", params = "cursor")
+    public BookingPageDto getBookingsPageByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                 @RequestParam(required = false, defaultValue = "ALL") BookingStatus state,
+                                                 @RequestParam(defaultValue = "") String cursor,
+                                                 @RequestParam(defaultValue = "10") Integer size) {
+        return service.getBookingsPageByOwnerAndState(ownerId, state, cursor, size);
+    }
 }
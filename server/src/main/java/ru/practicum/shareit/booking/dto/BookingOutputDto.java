@@ -1,22 +1,22 @@
 package ru.practicum.shareit.booking.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.enums.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class BookingOutputDto {
 
     private Long id;
 
-    private User booker;
+    private BookingBookerDto booker;
 
-    private Item item;
+    private BookingItemDto item;
 
     private BookingStatus status;
 
@@ -24,6 +24,12 @@ public class BookingOutputDto {
 
     private LocalDateTime end;
 
+    //used by JPQL constructor expressions in BookingRepository, so booking lists are read without entities
+    public BookingOutputDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                            Long bookerId, Long itemId, String itemName) {
+        this(id, new BookingBookerDto(bookerId), new BookingItemDto(itemId, itemName), status, start, end);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -36,4 +42,3 @@ public class BookingOutputDto {
         return getClass().hashCode();
     }
 }
-
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+public class BookingPageDto {
+
+    @Builder.Default
+    private List<BookingOutputDto> bookings = new ArrayList<>();
+
+    private String nextCursor;
+
+}
@@ -2,13 +2,22 @@ package ru.practicum.shareit.booking.mapper;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingBookerDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.InvalidDataException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
 @Component
 @RequiredArgsConstructor
 public class BookingMapper {
@@ -17,9 +26,14 @@ public class BookingMapper {
         return BookingOutputDto.builder()
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .booker(booking.getBooker())
+                .booker(BookingBookerDto.builder()
+                        .id(booking.getBooker().getId())
+                        .build())
                 .id(booking.getId())
-                .item(booking.getItem())
+                .item(BookingItemDto.builder()
+                        .id(booking.getItem().getId())
+                        .name(booking.getItem().getName())
+                        .build())
                 .status(booking.getStatus())
                 .build();
     }
@@ -34,4 +48,24 @@ public class BookingMapper {
         return booking;
     }
 
+    public String toCursor(BookingOutputDto booking) {
+        String cursor = booking.getStart() + "|" + booking.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public BookingCursor fromCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new InvalidDataException("Некорректный cursor: " + cursor);
+            }
+            return BookingCursor.builder()
+                    .start(LocalDateTime.parse(parts[0]))
+                    .id(Long.parseLong(parts[1]))
+                    .build();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidDataException("Некорректный cursor: " + cursor);
+        }
+    }
+
 }
@@ -19,13 +19,20 @@ public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @ManyToOne
-    @JoinColumn(name = "booker_id")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    @JoinColumn(name = "booker_id", nullable = false)
     private User booker;
 
-    @ManyToOne
-    @JoinColumn(name = "item_id")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    @JoinColumn(name = "item_id", nullable = false)
     private Item item;
+    //copy of item.owner, lets owner lists use their own index instead of joining items
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    @JoinColumn(name = "owner_id", nullable = false, updatable = false)
+    private User owner;
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BookingStatus status;
@@ -33,6 +40,14 @@ public class Booking {
     private LocalDateTime start;
     @Column(name = "end_time", nullable = false)
     private LocalDateTime end;
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @PrePersist
+    void copyItemOwner() {
+        owner = item.getOwner();
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -1,29 +1,134 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.enums.BookingStatus;
 
+import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    //Query for ALL, REJECTED, WAITING, APPROVED
-    List<Booking> findByStatusInOrderByStartDesc(List<BookingStatus> status);
+    //booking list rows are read straight into BookingOutputDto, booker and item entities are not loaded
+    String OUTPUT_DTO = "SELECT new ru.practicum.shareit.booking.dto.BookingOutputDto(" +
+            "b.id, b.start, b.end, b.status, b.booker.id, b.item.id, b.item.name) FROM Booking b ";
 
-    //Query for PAST
-    List<Booking> findByEndBeforeOrderByStartDesc(LocalDateTime before);
+    //Queries by booker: ALL, PAST, CURRENT, FUTURE, REJECTED/WAITING/APPROVED
+    @Query(OUTPUT_DTO + "WHERE b.booker.id = :bookerId ORDER BY b.start DESC")
+    List<BookingOutputDto> findByBookerIdOrderByStartDesc(@Param("bookerId") Long bookerId, Pageable pageable);
 
-    //Query for CURRENT
-    List<Booking> findByStartBeforeAndEndAfterOrderByStartDesc(LocalDateTime before, LocalDateTime after);
+    @Query(OUTPUT_DTO + "WHERE b.booker.id = :bookerId AND b.end < :before ORDER BY b.start DESC")
+    List<BookingOutputDto> findByBookerIdAndEndBeforeOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                                      @Param("before") LocalDateTime before,
+                                                                      Pageable pageable);
 
-    //Query for FUTURE
-    List<Booking> findByStartAfterOrderByStartDesc(LocalDateTime after);
+    @Query(OUTPUT_DTO + "WHERE b.booker.id = :bookerId AND b.start < :before AND b.end > :after ORDER BY b.start DESC")
+    List<BookingOutputDto> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                                                   @Param("before") LocalDateTime before,
+                                                                                   @Param("after") LocalDateTime after,
+                                                                                   Pageable pageable);
 
-    //get last booking
-    Booking findFirstByItemIdAndStartBeforeOrderByStartDesc(Long itemId, LocalDateTime before);
+    @Query(OUTPUT_DTO + "WHERE b.booker.id = :bookerId AND b.start > :after ORDER BY b.start DESC")
+    List<BookingOutputDto> findByBookerIdAndStartAfterOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                                       @Param("after") LocalDateTime after,
+                                                                       Pageable pageable);
 
-    //get next booking
-    Booking findFirstByItemIdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime before);
+    @Query(OUTPUT_DTO + "WHERE b.booker.id = :bookerId AND b.status = :status ORDER BY b.start DESC")
+    List<BookingOutputDto> findByBookerIdAndStatusOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                                   @Param("status") BookingStatus status,
+                                                                   Pageable pageable);
+
+    //Queries by item owner: ALL, PAST, CURRENT, FUTURE, REJECTED/WAITING/APPROVED
+    @Query(OUTPUT_DTO + "WHERE b.owner.id = :ownerId ORDER BY b.start DESC")
+    List<BookingOutputDto> findByItemOwnerIdOrderByStartDesc(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query(OUTPUT_DTO + "WHERE b.owner.id = :ownerId AND b.end < :before ORDER BY b.start DESC")
+    List<BookingOutputDto> findByItemOwnerIdAndEndBeforeOrderByStartDesc(@Param("ownerId") Long ownerId,
+                                                                         @Param("before") LocalDateTime before,
+                                                                         Pageable pageable);
+
+    @Query(OUTPUT_DTO + "WHERE b.owner.id = :ownerId AND b.start < :before AND b.end > :after ORDER BY b.start DESC")
+    List<BookingOutputDto> findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(@Param("ownerId") Long ownerId,
+                                                                                      @Param("before") LocalDateTime before,
+                                                                                      @Param("after") LocalDateTime after,
+                                                                                      Pageable pageable);
+
+    @Query(OUTPUT_DTO + "WHERE b.owner.id = :ownerId AND b.start > :after ORDER BY b.start DESC")
+    List<BookingOutputDto> findByItemOwnerIdAndStartAfterOrderByStartDesc(@Param("ownerId") Long ownerId,
+                                                                          @Param("after") LocalDateTime after,
+                                                                          Pageable pageable);
+
+    @Query(OUTPUT_DTO + "WHERE b.owner.id = :ownerId AND b.status = :status ORDER BY b.start DESC")
+    List<BookingOutputDto> findByItemOwnerIdAndStatusOrderByStartDesc(@Param("ownerId") Long ownerId,
+                                                                      @Param("status") BookingStatus status,
+                                                                      Pageable pageable);
+
+    //Keyset queries: state is expressed as status set and start/end bounds, page starts after (cursorStart, cursorId)
+    @Query(OUTPUT_DTO +
+            "WHERE b.booker.id = :userId AND b.status IN :statuses " +
+            "AND b.start > :startFrom AND b.start <= :cursorStart AND b.end > :endFrom AND b.end < :endTo " +
+            "AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<BookingOutputDto> findByBookerAfterCursor(@Param("userId") Long bookerId,
+                                                   @Param("statuses") List<BookingStatus> statuses,
+                                                   @Param("startFrom") LocalDateTime startFrom,
+                                                   @Param("endFrom") LocalDateTime endFrom,
+                                                   @Param("endTo") LocalDateTime endTo,
+                                                   @Param("cursorStart") LocalDateTime cursorStart,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
+
+    @Query(OUTPUT_DTO +
+            "WHERE b.owner.id = :userId AND b.status IN :statuses " +
+            "AND b.start > :startFrom AND b.start <= :cursorStart AND b.end > :endFrom AND b.end < :endTo " +
+            "AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<BookingOutputDto> findByItemOwnerAfterCursor(@Param("userId") Long ownerId,
+                                                      @Param("statuses") List<BookingStatus> statuses,
+                                                      @Param("startFrom") LocalDateTime startFrom,
+                                                      @Param("endFrom") LocalDateTime endFrom,
+                                                      @Param("endTo") LocalDateTime endTo,
+                                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                                      @Param("cursorId") Long cursorId,
+                                                      Pageable pageable);
+
+    //atomic status transition, returns 0 when the booking is no longer in the expected status
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 WHERE b.id = :id AND b.status = :expected")
+    int updateStatus(@Param("id") Long bookingId, @Param("expected") BookingStatus expected,
+                     @Param("status") BookingStatus status);
+
+    //load a single booking with its item, booker and item owner are only compared by id
+    @EntityGraph(attributePaths = "item")
+    Optional<Booking> findWithItemById(Long bookingId);
+
+    //check that user booked the item before, used to allow comments
+    boolean existsByBookerIdAndItemIdAndStatusNotAndStartLessThanEqual(Long bookerId, Long itemId,
+                                                                      BookingStatus status, LocalDateTime before);
+
+    //check that an approved booking of the item overlaps [start, end)
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfter(Long itemId, BookingStatus status,
+                                                             LocalDateTime end, LocalDateTime start);
+
+    //get last bookings for several items, used to build item booking summaries
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.start = " +
+            "(SELECT MAX(lb.start) FROM Booking lb WHERE lb.item.id = b.item.id AND lb.start < :now)")
+    List<Booking> findLastBookingsByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+
+    //get next bookings for several items
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.start = " +
+            "(SELECT MIN(nb.start) FROM Booking nb WHERE nb.item.id = b.item.id AND nb.start > :now)")
+    List<Booking> findNextBookingsByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
 
 }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.enums.BookingStatus;
 
 import java.util.List;
@@ -16,4 +17,8 @@ public interface BookingService {
     List<BookingOutputDto> getAllBookingsByBookerAndState(long bookerId, BookingStatus state, Integer from, Integer size);
 
     List<BookingOutputDto> getAllBookingsByOwnerAndState(long bookerId, BookingStatus state, Integer from, Integer size);
+
+    BookingPageDto getBookingsPageByBookerAndState(long bookerId, BookingStatus state, String cursor, Integer size);
+
+    BookingPageDto getBookingsPageByOwnerAndState(long ownerId, BookingStatus state, String cursor, Integer size);
 }
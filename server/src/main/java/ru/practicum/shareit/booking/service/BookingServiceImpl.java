@@ -1,47 +1,59 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.support.PagedListHolder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemCache;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.summary.service.ItemBookingSummaryService;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
+@Timed("shareit.service")
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+    //a cursor page stays a bounded read whatever size the client asks for
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final BookingRepository repository;
 
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingMapper mapper;
+    private final ItemCache itemCache;
+    private final ItemBookingSummaryService summaryService;
 
     @Override
     public BookingOutputDto addBooking(long bookerId, BookingInputDto bookingInputDto) {
         Optional<Item> item = itemRepository.findById(bookingInputDto.getItemId());
-        Optional<User> user = userRepository.findById(bookerId);
         if (item.isEmpty()) {
             throw new ItemNotFoundException("item не существует");
         }
-        if (user.isEmpty()) {
-            throw new OwnerNotFoundException("Пользователь не найден");
-        }
+        checkUserId(bookerId);
         if (item.get().getOwner().getId() == bookerId) {
             throw new OwnerNotFoundException("Пользователь не может арендовать свой же item");
         }
@@ -54,40 +66,54 @@ public class BookingServiceImpl implements BookingService {
         }
         BookingOutputDto bookingOutputDto = mapper.toOutputDtoFromEntity(repository.save(mapper.toEntityFromInputDto(bookingInputDto,
                 item.get(),
-                user.get(),
+                userRepository.getById(bookerId),
                 BookingStatus.WAITING)));
         bookingOutputDto.setStatus(BookingStatus.WAITING);
-        bookingOutputDto.setBooker(user.get());
+        summaryService.refresh(item.get().getId());
+        itemCache.evict(item.get().getId());
         return bookingOutputDto;
     }
 
     @Override
     public BookingOutputDto approveBooking(long ownerId, Boolean approved, Long bookingId) {
-        Booking booking = repository.getById(bookingId);
-        log.info("patch id владельца предмета: {}, id пользователя {}", booking.getBooker().getId(), ownerId);
+        Booking booking = getBookingWithItem(bookingId);
+        log.debug("patch id владельца предмета: {}, id пользователя {}", booking.getBooker().getId(), ownerId);
         if (booking.getItem().getOwner().getId() != ownerId) {
             throw new OwnerNotFoundException("Пользователь не владелец вещи");
         }
         if (booking.getStatus() == BookingStatus.APPROVED && approved) {
             throw new UnsupportedStatusException("Одобрить дважды нельзя");
         }
-        if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+        if (approved && repository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(booking.getItem().getId(),
+                BookingStatus.APPROVED, booking.getEnd(), booking.getStart())) {
+            log.error("Бронирование {} пересекается с уже одобренным", bookingId);
+            throw new BookingConflictException("item уже забронирован на это время");
         }
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        int updated;
+        try {
+            updated = repository.updateStatus(bookingId, BookingStatus.WAITING, status);
+        } catch (DataIntegrityViolationException e) {
+            //concurrent approval of an overlapping booking, rejected by EXCL_BOOKING_APPROVED_OVERLAP
+            log.error("Бронирование {} пересекается с уже одобренным", bookingId);
+            throw new BookingConflictException("item уже забронирован на это время");
+        }
+        if (updated == 0) {
+            log.error("Бронирование {} уже не ожидает подтверждения", bookingId);
+            throw new BookingConflictException("Бронирование уже рассмотрено");
+        }
+        summaryService.refresh(booking.getItem().getId());
+        itemCache.evict(booking.getItem().getId());
         BookingOutputDto bookingOutputDto = mapper.toOutputDtoFromEntity(booking);
-        bookingOutputDto.setStatus(booking.getStatus());
-        repository.save(booking);
+        bookingOutputDto.setStatus(status);
         return bookingOutputDto;
     }
 
     @Override
     public BookingOutputDto getBookingById(long bookerId, Long bookingId) {
-        Booking booking = repository.getReferenceById(bookingId);
-        log.info("id владельца предмета: {}, id пользователя {}", booking.getBooker().getId(), bookerId);
-        Optional<User> user = userRepository.findById(bookerId);
-        if (user.isEmpty() || (booking.getBooker().getId() != bookerId && booking.getItem().getOwner().getId() != bookerId)) {
+        Booking booking = getBookingWithItem(bookingId);
+        log.debug("id владельца предмета: {}, id пользователя {}", booking.getBooker().getId(), bookerId);
+        if (!userCache.exists(bookerId) || (booking.getBooker().getId() != bookerId && booking.getItem().getOwner().getId() != bookerId)) {
             throw new OwnerNotFoundException("Пользователь не найден или не является автором бронирования или владельцем вещи");
         }
         return mapper.toOutputDtoFromEntity(booking);
@@ -95,59 +121,152 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingOutputDto> getAllBookingsByBookerAndState(long bookerId, BookingStatus state, Integer from, Integer size) {
-        PagedListHolder page = new PagedListHolder(getAllBookingsByState(bookerId, state)
-                .stream()
-                .filter(booking -> booking.getBooker().getId() == bookerId)
-                .collect(Collectors.toList()));
-        page.setPageSize(size);
-        page.setPage(from);
-        return new ArrayList<>(page.getPageList());
+        checkUserId(bookerId);
+        Pageable page = PageRequest.of(from, size);
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingOutputDto> bookings;
+        switch (state) {
+            case ALL:
+                bookings = repository.findByBookerIdOrderByStartDesc(bookerId, page);
+                break;
+            case PAST:
+                bookings = repository.findByBookerIdAndEndBeforeOrderByStartDesc(bookerId, now, page);
+                break;
+            case CURRENT:
+                bookings = repository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId, now, now, page);
+                break;
+            case FUTURE:
+                bookings = repository.findByBookerIdAndStartAfterOrderByStartDesc(bookerId, now, page);
+                break;
+            case UNSUPPORTED_STATUS:
+                throw new UnsupportedStatusException("Unknown state: UNSUPPORTED_STATUS");
+            default:
+                bookings = repository.findByBookerIdAndStatusOrderByStartDesc(bookerId, state, page);
+        }
+        return bookings;
     }
 
     @Override
     public List<BookingOutputDto> getAllBookingsByOwnerAndState(long bookerId, BookingStatus state, Integer from, Integer size) {
-        PagedListHolder page = new PagedListHolder(getAllBookingsByState(bookerId, state)
-                .stream()
-                .filter(booking -> booking.getItem().getOwner().getId() == bookerId)
-                .collect(Collectors.toList()));
-        page.setPageSize(size);
-        page.setPage(from);
-        return new ArrayList<>(page.getPageList());
+        checkUserId(bookerId);
+        Pageable page = PageRequest.of(from, size);
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingOutputDto> bookings;
+        switch (state) {
+            case ALL:
+                bookings = repository.findByItemOwnerIdOrderByStartDesc(bookerId, page);
+                break;
+            case PAST:
+                bookings = repository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(bookerId, now, page);
+                break;
+            case CURRENT:
+                bookings = repository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId, now, now, page);
+                break;
+            case FUTURE:
+                bookings = repository.findByItemOwnerIdAndStartAfterOrderByStartDesc(bookerId, now, page);
+                break;
+            case UNSUPPORTED_STATUS:
+                throw new UnsupportedStatusException("Unknown state: UNSUPPORTED_STATUS");
+            default:
+                bookings = repository.findByItemOwnerIdAndStatusOrderByStartDesc(bookerId, state, page);
+        }
+        return bookings;
     }
 
-    private List<BookingOutputDto> getAllBookingsByState(long bookerId, BookingStatus state) {
-        Optional<User> user = userRepository.findById(bookerId);
-        if (user.isEmpty()) {
-            throw new OwnerNotFoundException("Пользователь не найден");
+    @Override
+    public BookingPageDto getBookingsPageByBookerAndState(long bookerId, BookingStatus state, String cursor, Integer size) {
+        checkUserId(bookerId);
+        StateBounds bounds = toStateBounds(state);
+        BookingCursor after = toBookingCursor(cursor, bounds.startTo);
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return toPage(repository.findByBookerAfterCursor(bookerId,
+                bounds.statuses,
+                bounds.startFrom,
+                bounds.endFrom,
+                bounds.endTo,
+                after.getStart(),
+                after.getId(),
+                PageRequest.of(0, limit + 1)), limit);
+    }
+
+    @Override
+    public BookingPageDto getBookingsPageByOwnerAndState(long ownerId, BookingStatus state, String cursor, Integer size) {
+        checkUserId(ownerId);
+        StateBounds bounds = toStateBounds(state);
+        BookingCursor after = toBookingCursor(cursor, bounds.startTo);
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return toPage(repository.findByItemOwnerAfterCursor(ownerId,
+                bounds.statuses,
+                bounds.startFrom,
+                bounds.endFrom,
+                bounds.endTo,
+                after.getStart(),
+                after.getId(),
+                PageRequest.of(0, limit + 1)), limit);
+    }
+
+    //start < startTo is the cursor (startTo, Long.MIN_VALUE), the tighter one bounds the index range from above
+    private BookingCursor toBookingCursor(String cursor, LocalDateTime startTo) {
+        BookingCursor after = cursor == null || cursor.isBlank()
+                ? BookingCursor.builder().start(MAX_TIME).id(Long.MAX_VALUE).build()
+                : mapper.fromCursor(cursor);
+        if (startTo == null || startTo.isAfter(after.getStart())) {
+            return after;
+        }
+        return BookingCursor.builder()
+                .start(startTo)
+                .id(Long.MIN_VALUE)
+                .build();
+    }
+
+    private BookingPageDto toPage(List<BookingOutputDto> bookings, int size) {
+        String nextCursor = null;
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            nextCursor = mapper.toCursor(bookings.get(size - 1));
         }
+        return BookingPageDto.builder()
+                .bookings(bookings)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private StateBounds toStateBounds(BookingStatus state) {
+        LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case ALL:
-                return repository.findByStatusInOrderByStartDesc(List.of(BookingStatus.values()))
-                        .stream()
-                        .map(mapper::toOutputDtoFromEntity)
-                        .collect(Collectors.toList());
+                return new StateBounds(List.of(BookingStatus.values()), MIN_TIME, null, MIN_TIME, MAX_TIME);
             case PAST:
-                return repository.findByEndBeforeOrderByStartDesc(LocalDateTime.now())
-                        .stream()
-                        .map(mapper::toOutputDtoFromEntity)
-                        .collect(Collectors.toList());
+                return new StateBounds(List.of(BookingStatus.values()), MIN_TIME, null, MIN_TIME, now);
             case CURRENT:
-                return repository.findByStartBeforeAndEndAfterOrderByStartDesc(LocalDateTime.now(), LocalDateTime.now())
-                        .stream()
-                        .map(mapper::toOutputDtoFromEntity)
-                        .collect(Collectors.toList());
+                return new StateBounds(List.of(BookingStatus.values()), MIN_TIME, now, now, MAX_TIME);
             case FUTURE:
-                return repository.findByStartAfterOrderByStartDesc(LocalDateTime.now())
-                        .stream()
-                        .map(mapper::toOutputDtoFromEntity)
-                        .collect(Collectors.toList());
+                return new StateBounds(List.of(BookingStatus.values()), now, null, MIN_TIME, MAX_TIME);
             case UNSUPPORTED_STATUS:
                 throw new UnsupportedStatusException("Unknown state: UNSUPPORTED_STATUS");
             default:
-                return repository.findByStatusInOrderByStartDesc(List.of(state))
-                        .stream()
-                        .map(mapper::toOutputDtoFromEntity)
-                        .collect(Collectors.toList());
+                return new StateBounds(List.of(state), MIN_TIME, null, MIN_TIME, MAX_TIME);
+        }
+    }
+
+    private Booking getBookingWithItem(Long bookingId) {
+        return repository.findWithItemById(bookingId)
+                .orElseThrow(() -> new EntityNotFoundException("Бронирование не найдено"));
+    }
+
+    private void checkUserId(long userId) {
+        if (!userCache.exists(userId)) {
+            throw new OwnerNotFoundException("Пользователь не найден");
         }
     }
+
+    @RequiredArgsConstructor
+    private static class StateBounds {
+        private final List<BookingStatus> statuses;
+        private final LocalDateTime startFrom;
+        //null unless the state bounds start from above, the bound is folded into the cursor
+        private final LocalDateTime startTo;
+        private final LocalDateTime endFrom;
+        private final LocalDateTime endTo;
+    }
 }
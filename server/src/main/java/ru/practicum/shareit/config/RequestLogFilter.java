@@ -0,0 +1,54 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Slf4j
+@Component
+public class RequestLogFilter extends OncePerRequestFilter {
+    private static final String START_ATTRIBUTE = RequestLogFilter.class.getName() + ".start";
+    public static final String COUNT_ATTRIBUTE = RequestLogFilter.class.getName() + ".count";
+
+    //number of returned records, set by ResultCountAdvice for lists and by NdjsonWriter for streams
+    public static void setResultCount(ServletRequest request, long count) {
+        request.setAttribute(COUNT_ATTRIBUTE, count);
+    }
+
+    //one summary line per request, payloads are logged by controllers at DEBUG only
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            //streamed and reactive responses are finished in the async dispatch
+            if (!request.isAsyncStarted()) {
+                long millis = (System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE)) / 1_000_000;
+                Object count = request.getAttribute(COUNT_ATTRIBUTE);
+                if (count == null) {
+                    log.info("{} {} -> {} за {} мс", request.getMethod(), request.getRequestURI(),
+                            response.getStatus(), millis);
+                } else {
+                    log.info("{} {} -> {} за {} мс, записей {}", request.getMethod(), request.getRequestURI(),
+                            response.getStatus(), millis, count);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
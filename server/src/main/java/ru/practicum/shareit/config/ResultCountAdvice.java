@@ -0,0 +1,39 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+
+import java.util.Collection;
+
+//list and page sizes for the request summary line of RequestLogFilter
+@ControllerAdvice
+public class ResultCountAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            if (body instanceof Collection) {
+                RequestLogFilter.setResultCount(((ServletServerHttpRequest) request).getServletRequest(),
+                        ((Collection<?>) body).size());
+            } else if (body instanceof BookingPageDto) {
+                RequestLogFilter.setResultCount(((ServletServerHttpRequest) request).getServletRequest(),
+                        ((BookingPageDto) body).getBookings().size());
+            }
+        }
+        return body;
+    }
+}
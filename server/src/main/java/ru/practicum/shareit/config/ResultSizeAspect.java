@@ -0,0 +1,54 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+//rows loaded by repositories and returned by services, compared per method they show where results are filtered in memory
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ResultSizeAspect {
+    private final MeterRegistry registry;
+
+    @AfterReturning(pointcut = "@within(io.micrometer.core.annotation.Timed)", returning = "result")
+    public void serviceResult(JoinPoint joinPoint, Object result) {
+        record("shareit.service.results", "class", joinPoint.getTarget().getClass().getSimpleName(),
+                joinPoint, result);
+    }
+
+    @AfterReturning(pointcut = "execution(* org.springframework.data.repository.Repository+.*(..))",
+            returning = "result")
+    public void repositoryResult(JoinPoint joinPoint, Object result) {
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+        record("shareit.repository.results", "repository", interfaces[0].getSimpleName(), joinPoint, result);
+    }
+
+    private void record(String name, String ownerTag, String owner, JoinPoint joinPoint, Object result) {
+        int size;
+        if (result instanceof Collection) {
+            size = ((Collection<?>) result).size();
+        } else if (result instanceof Map) {
+            size = ((Map<?, ?>) result).size();
+        } else if (result instanceof Slice) {
+            size = ((Slice<?>) result).getNumberOfElements();
+        } else {
+            return;
+        }
+        DistributionSummary.builder(name)
+                .baseUnit("rows")
+                .tag(ownerTag, owner)
+                .tag("method", joinPoint.getSignature().getName())
+                .register(registry)
+                .record(size);
+    }
+}
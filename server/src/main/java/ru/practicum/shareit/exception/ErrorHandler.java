@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -36,6 +37,12 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage(), e.getStackTrace());
     }
 
+    @ExceptionHandler({BookingConflictException.class, ObjectOptimisticLockingFailureException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflictException(final Exception e) {
+        return new ErrorResponse(e.getMessage(), e.getStackTrace());
+    }
+
     private static class ErrorResponse {
         String error;
         StackTraceElement[] stackTrace;
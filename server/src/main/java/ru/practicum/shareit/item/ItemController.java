@@ -2,10 +2,14 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.comments.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.stream.NdjsonWriter;
 
 import java.util.List;
 
@@ -15,55 +19,65 @@ import java.util.List;
 @Slf4j
 public class ItemController {
     private final ItemService service;
+    private final NdjsonWriter ndjsonWriter;
 
     @GetMapping
     public List<ItemDto> getAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("id владельца для запроса getAllItemsByOwner: {}", userId);
+        log.debug("id владельца для запроса getAllItemsByOwner: {}", userId);
         List<ItemDto> allItems = service.getAllItemsByOwner(userId);
-        log.info("Результат запроса getAllItemsByOwner: {}", allItems);
+        log.debug("Результат запроса getAllItemsByOwner: {}", allItems);
         return allItems;
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.debug("id владельца для потоковой выгрузки getAllItemsByOwner: {}", userId);
+        return ndjsonWriter.<ItemDto>write(consumer -> service.streamAllItemsByOwner(userId, consumer));
+    }
+
     @GetMapping("/{id}")
     public ItemDto getItem(@RequestHeader("X-Sharer-User-Id") long userId,
                            @PathVariable long id) {
-        log.info("id для запроса getItem: {}", id);
+        log.debug("id для запроса getItem: {}", id);
         ItemDto item = service.getItem(userId, id);
-        log.info("Результат запроса getItem: {}", item);
+        log.debug("Результат запроса getItem: {}", item);
         return item;
     }
 
+    //clients without paging parameters get every match as before, up to a cap
     @GetMapping("/search")
-    public List<ItemDto> searchItem(@RequestParam String text) {
-        log.info("text для запроса searchItem: {}", text);
-        List<ItemDto> result = service.searchItem(text);
-        log.info("Результат запроса searchItem: {}", result);
+    public List<ItemDto> searchItem(@RequestParam String text,
+                                    @RequestParam(defaultValue = "0") Integer from,
+                                    @RequestParam(defaultValue = "1000") Integer size) {
+        log.debug("text, from, size для запроса searchItem: {}, {}, {}", text, from, size);
+        List<ItemDto> result = service.searchItem(text, from, size);
+        log.debug("Результат запроса searchItem: {}", result);
         return result;
     }
 
     @PostMapping()
     public ItemDto addItem(@RequestBody ItemDto item,
                            @RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("item и id владельца для запроса addItem: {}, {}", item, userId);
+        log.debug("item и id владельца для запроса addItem: {}, {}", item, userId);
         ItemDto result = service.addItem(item, userId);
-        log.info("Результат запроса addItem: {}", result);
+        log.debug("Результат запроса addItem: {}", result);
         return result;
     }
 
     @DeleteMapping("/{id}")
     public void deleteItem(@PathVariable long id, @RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("Удаление предмета с id {} и id владельца {} начато", id, userId);
+        log.debug("Удаление предмета с id {} и id владельца {} начато", id, userId);
         service.deleteItem(id, userId);
-        log.info("Удаление предмета с id {} и id владельца {} завершено", id, userId);
+        log.debug("Удаление предмета с id {} и id владельца {} завершено", id, userId);
     }
 
     @PatchMapping("/{id}")
     public ItemDto patchItem(@PathVariable long id,
                              @RequestBody ItemDto patch,
                              @RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("patchItem: id {}, item {}, userId {} патч начат", id, patch, userId);
+        log.debug("patchItem: id {}, item {}, userId {} патч начат", id, patch, userId);
         ItemDto itemDto = service.patchItem(id, patch, userId);
-        log.info("Патч завершен. Результат: {}", itemDto);
+        log.debug("Патч завершен. Результат: {}", itemDto);
         return itemDto;
     }
 
@@ -71,9 +85,9 @@ public class ItemController {
     public CommentDto addComment(@PathVariable long itemId,
                                  @RequestHeader("X-Sharer-User-Id") long userId,
                                  @RequestBody CommentDto commentDto) {
-        log.info("addComment: id {}, commentDto {}, userId {} патч начат", itemId, commentDto, userId);
+        log.debug("addComment: id {}, commentDto {}, userId {} патч начат", itemId, commentDto, userId);
         CommentDto result = service.addComment(itemId, userId, commentDto);
-        log.info("Добавление комметария завершено. Результат: {}", result);
+        log.debug("Добавление комметария завершено. Результат: {}", result);
         return result;
     }
 }
@@ -20,11 +20,13 @@ public class Comment {
     private Long id;
 
     private String text;
-    @ManyToOne
-    @JoinColumn(name = "author_id")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    @JoinColumn(name = "author_id", nullable = false)
     private User author;
-    @ManyToOne
-    @JoinColumn(name = "item_id")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
+    @JoinColumn(name = "item_id", nullable = false)
     private Item item;
 
     private LocalDateTime created;
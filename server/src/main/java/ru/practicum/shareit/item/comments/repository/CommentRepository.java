@@ -1,10 +1,19 @@
 package ru.practicum.shareit.item.comments.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.comments.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    //comments are shown with author name, so the author is loaded together with them
+    @EntityGraph(attributePaths = "author")
     List<Comment> findByItemId(Long itemId);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item.id IN :itemIds")
+    List<Comment> findByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 }
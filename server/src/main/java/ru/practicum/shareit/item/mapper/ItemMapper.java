@@ -3,12 +3,12 @@ package ru.practicum.shareit.item.mapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.ItemResponseBookingDto;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.item.comments.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoForRequest;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.summary.model.ItemBookingSummary;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -19,27 +19,27 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class ItemMapper {
 
-    public ItemDto toDto(Item item, Long userId, Booking lastBooking, Booking nextBooking, List<CommentDto> comments) {
+    public ItemDto toDto(Item item, Long userId, ItemBookingSummary summary, List<CommentDto> comments) {
         ItemDto itemDto = ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .build();
-        if (Objects.equals(item.getOwner().getId(), userId)) {
-            if (lastBooking != null && lastBooking.getStatus() != BookingStatus.REJECTED) {
+        if (summary != null && Objects.equals(item.getOwner().getId(), userId)) {
+            if (summary.getLastBookingId() != null && summary.getLastStatus() != BookingStatus.REJECTED) {
                 ItemResponseBookingDto lastBookingDto = ItemResponseBookingDto.builder()
-                        .id(lastBooking.getId())
-                        .bookerId(lastBooking.getBooker().getId())
-                        .status(lastBooking.getStatus())
+                        .id(summary.getLastBookingId())
+                        .bookerId(summary.getLastBookerId())
+                        .status(summary.getLastStatus())
                         .build();
                 itemDto.setLastBooking(lastBookingDto);
             }
-            if (nextBooking != null && nextBooking.getStatus() != BookingStatus.REJECTED) {
+            if (summary.getNextBookingId() != null && summary.getNextStatus() != BookingStatus.REJECTED) {
                 ItemResponseBookingDto nextBookingDto = ItemResponseBookingDto.builder()
-                        .id(nextBooking.getId())
-                        .bookerId(nextBooking.getBooker().getId())
-                        .status(nextBooking.getStatus())
+                        .id(summary.getNextBookingId())
+                        .bookerId(summary.getNextBookerId())
+                        .status(summary.getNextStatus())
                         .build();
                 itemDto.setNextBooking(nextBookingDto);
             }
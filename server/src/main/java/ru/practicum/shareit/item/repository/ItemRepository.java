@@ -1,11 +1,36 @@
 package ru.practicum.shareit.item.repository;
 
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.stream.StreamChunks;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByRequestId(Long requestId);
+    //owner and request are mapped by id only, so they stay lazy and are not joined
+    @Query("SELECT i FROM Item i WHERE i.request.id IN :requestIds ORDER BY i.id")
+    List<Item> findAllByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query("SELECT i FROM Item i WHERE i.owner.id = :ownerId ORDER BY i.id")
+    List<Item> findAllByOwnerId(@Param("ownerId") Long ownerId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamChunks.FETCH_SIZE))
+    @Query("SELECT i FROM Item i WHERE i.owner.id = :ownerId ORDER BY i.id")
+    Stream<Item> streamAllByOwnerId(@Param("ownerId") Long ownerId);
+
+    //pattern must be lower-cased and escaped with '!', see ItemServiceImpl.searchItem
+    @Query("SELECT i FROM Item i WHERE i.available = TRUE " +
+            "AND (LOWER(i.name) LIKE :pattern ESCAPE '!' OR LOWER(i.description) LIKE :pattern ESCAPE '!') " +
+            "ORDER BY i.id")
+    List<Item> searchAvailable(@Param("pattern") String pattern, Pageable pageable);
 }
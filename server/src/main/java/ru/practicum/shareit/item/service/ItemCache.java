@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class ItemCache {
+    public static final String ITEMS = "items";
+
+    private final CacheManager cacheManager;
+
+    //one entry per item holds the owner view, other users get a copy without bookings like ItemMapper.toDto returns
+    //loading runs inside the cache, so an evict issued meanwhile waits for it and removes the loaded entry
+    public ItemDto get(long itemId, long userId, Supplier<Entry> loader) {
+        Entry entry;
+        try {
+            entry = items().get(itemId, loader::get);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return Objects.requireNonNull(entry).viewFor(userId);
+    }
+
+    public void evict(long itemId) {
+        items().evict(itemId);
+    }
+
+    private Cache items() {
+        return Objects.requireNonNull(cacheManager.getCache(ITEMS), "Кэш " + ITEMS + " не настроен");
+    }
+
+    @RequiredArgsConstructor
+    public static class Entry {
+        private final long ownerId;
+        private final ItemDto ownerView;
+
+        ItemDto viewFor(long userId) {
+            boolean owner = ownerId == userId;
+            return ItemDto.builder()
+                    .id(ownerView.getId())
+                    .name(ownerView.getName())
+                    .description(ownerView.getDescription())
+                    .available(ownerView.getAvailable())
+                    .requestId(ownerView.getRequestId())
+                    .lastBooking(owner ? ownerView.getLastBooking() : null)
+                    .nextBooking(owner ? ownerView.getNextBooking() : null)
+                    .comments(new ArrayList<>(ownerView.getComments()))
+                    .build();
+        }
+    }
+}
@@ -4,13 +4,16 @@ import ru.practicum.shareit.item.comments.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     List<ItemDto> getAllItemsByOwner(long userId);
 
+    void streamAllItemsByOwner(long userId, Consumer<ItemDto> consumer);
+
     ItemDto getItem(long userId, long id);
 
-    List<ItemDto> searchItem(String text);
+    List<ItemDto> searchItem(String text, Integer from, Integer size);
 
     ItemDto addItem(ItemDto item, long userId);
 
@@ -1,9 +1,10 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.exception.InvalidDataException;
@@ -17,89 +18,102 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.model.ItemBookingSummary;
+import ru.practicum.shareit.item.summary.service.ItemBookingSummaryService;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.stream.StreamChunks;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
-import javax.persistence.EntityNotFoundException;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("shareit.service")
 @RequiredArgsConstructor
 @Slf4j
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository repository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemMapper mapper;
     private final CommentMapper commentMapper;
+    private final ItemCache itemCache;
+    private final ItemBookingSummaryService summaryService;
+    private final EntityManager entityManager;
 
     @Override
+    @Transactional
     public List<ItemDto> getAllItemsByOwner(long userId) {
-        Predicate<Item> itemPredicate = item -> item.getOwner().getId() == userId;
-        return repository.findAll()
-                .stream()
-                .filter(itemPredicate)
-                .sorted((Comparator.comparing(Item::getId)))
-                .map(item -> mapper.toDto(item,
-                        userId,
-                        bookingRepository.findFirstByItemIdAndStartBeforeOrderByStartDesc(item.getId(), LocalDateTime.now()),
-                        bookingRepository.findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), LocalDateTime.now()),
-                        (commentRepository.findByItemId(item.getId())
-                                .stream()
-                                .map(commentMapper::toDto)
-                                .collect(Collectors.toList()))))
-                .collect(Collectors.toList());
+        List<Item> items = repository.findAllByOwnerId(userId);
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return toOwnerDtos(items, userId);
+    }
+
+    @Override
+    @Transactional
+    public void streamAllItemsByOwner(long userId, Consumer<ItemDto> consumer) {
+        StreamChunks.forEachChunk(repository.streamAllByOwnerId(userId), entityManager,
+                items -> toOwnerDtos(items, userId).forEach(consumer));
     }
 
     @Override
     public ItemDto getItem(long userId, long id) {
-        Item item = repository.getById(id);
-        Booking lastBooking = bookingRepository.findFirstByItemIdAndStartBeforeOrderByStartDesc(item.getId(), LocalDateTime.now());
-        Booking nextBooking = bookingRepository.findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), LocalDateTime.now());
-        List<CommentDto> comments = commentRepository.findByItemId(item.getId())
-                .stream()
-                .map(commentMapper::toDto)
-                .collect(Collectors.toList());
-        return mapper.toDto(item, userId, lastBooking, nextBooking, comments);
+        return itemCache.get(id, userId, () -> {
+            Item item = repository.getById(id);
+            long ownerId = item.getOwner().getId();
+            List<CommentDto> comments = commentRepository.findByItemId(item.getId())
+                    .stream()
+                    .map(commentMapper::toDto)
+                    .collect(Collectors.toList());
+            return new ItemCache.Entry(ownerId, mapper.toDto(item, ownerId, summaryService.getSummary(id), comments));
+        });
     }
 
     @Override
-    public List<ItemDto> searchItem(String text) {
+    @Transactional
+    public List<ItemDto> searchItem(String text, Integer from, Integer size) {
         if (text.isBlank()) {
-            log.info("Строка поиска пуста. Возвращен пустой ответ");
+            log.debug("Строка поиска пуста. Возвращен пустой ответ");
+            return new ArrayList<>();
+        }
+        String pattern = "%" + text.toLowerCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_") + "%";
+        List<Item> items = repository.searchAvailable(pattern, PageRequest.of(from, size));
+        if (items.isEmpty()) {
             return new ArrayList<>();
         }
-        return repository
-                .findAll()
+        Map<Long, List<CommentDto>> comments = commentRepository.findByItemIdIn(items.stream()
+                        .map(Item::getId)
+                        .collect(Collectors.toList()))
                 .stream()
-                .filter(
-                        (((Predicate<Item>) item -> item.getName().toLowerCase().contains(text.toLowerCase()))
-                                .or(item -> item.getDescription().toLowerCase().contains(text.toLowerCase())))
-                                .and(item -> item.getAvailable()))
+                .map(commentMapper::toDto)
+                .collect(Collectors.groupingBy(CommentDto::getItemId));
+        return items.stream()
                 .map(item -> mapper.toDto(item,
-                        item.getOwner().getId(),
-                        bookingRepository.findFirstByItemIdAndStartBeforeOrderByStartDesc(item.getId(), LocalDateTime.now()),
-                        bookingRepository.findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), LocalDateTime.now()),
-                        (commentRepository.findByItemId(item.getId())
-                                .stream()
-                                .map(commentMapper::toDto)
-                                .collect(Collectors.toList()))))
+                        null,
+                        null,
+                        comments.getOrDefault(item.getId(), new ArrayList<>())))
                 .collect(Collectors.toList());
     }
 
     @Override
     public ItemDto addItem(ItemDto item, long userId) {
-        Booking lastBooking = bookingRepository.findFirstByItemIdAndStartBeforeOrderByStartDesc(item.getId(), LocalDateTime.now());
-        Booking nextBooking = bookingRepository.findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), LocalDateTime.now());
         List<CommentDto> comments = commentRepository.findByItemId(item.getId())
                 .stream()
                 .map(commentMapper::toDto)
@@ -108,7 +122,8 @@ public class ItemServiceImpl implements ItemService {
         if (item.getRequestId() != null) {
             itemRequest = itemRequestRepository.getById(item.getRequestId());
         }
-        return mapper.toDto(repository.save(mapper.toEntity(item, checkUserId(userId), itemRequest)), userId, lastBooking, nextBooking, comments);
+        Item saved = repository.save(mapper.toEntity(item, checkUserId(userId), itemRequest));
+        return mapper.toDto(saved, userId, summaryService.refresh(saved.getId()), comments);
     }
 
     @Override
@@ -116,6 +131,7 @@ public class ItemServiceImpl implements ItemService {
         checkUserId(userId);
         if (repository.getById(id).getOwner().getId() == userId) {
             repository.deleteById(id);
+            itemCache.evict(id);
         } else {
             log.error("Пользователь {} не владелец предмета {}", userId, id);
             throw new OwnerAccessException("Предмет может удалять только его владелец!");
@@ -136,13 +152,13 @@ public class ItemServiceImpl implements ItemService {
             if (item.getAvailable() != null) {
                 patch.setAvailable(item.getAvailable());
             }
-            Booking lastBooking = bookingRepository.findFirstByItemIdAndStartBeforeOrderByStartDesc(item.getId(), LocalDateTime.now());
-            Booking nextBooking = bookingRepository.findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), LocalDateTime.now());
             List<CommentDto> comments = commentRepository.findByItemId(item.getId())
                     .stream()
                     .map(commentMapper::toDto)
                     .collect(Collectors.toList());
-            return mapper.toDto(repository.save(patch), userId, lastBooking, nextBooking, comments);
+            ItemDto patched = mapper.toDto(repository.save(patch), userId, summaryService.getSummary(id), comments);
+            itemCache.evict(id);
+            return patched;
         } else {
             log.error("Пользователь {} не владелец предмета {}", userId, id);
             throw new OwnerAccessException("Обновлять предмет может только его владелец");
@@ -158,34 +174,50 @@ public class ItemServiceImpl implements ItemService {
         commentDto.setItemId(itemId);
         Item item = repository.getById(itemId);
 
-        Booking lastBooking = bookingRepository.findFirstByItemIdAndStartBeforeOrderByStartDesc(item.getId(), LocalDateTime.now());
-        Booking nextBooking = bookingRepository.findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), LocalDateTime.now());
         List<CommentDto> comments = commentRepository.findByItemId(item.getId())
                 .stream()
                 .map(commentMapper::toDto)
                 .collect(Collectors.toList());
-        ItemDto itemDto = mapper.toDto(item, item.getOwner().getId(), lastBooking, nextBooking, comments);
-        Boolean userHasBooking = bookingRepository
-                .findAll()
-                .stream()
-                .anyMatch(booking -> booking.getBooker().getId() == userId
-                        && booking.getItem().getId() == itemId
-                        && !(booking.getStatus().equals(BookingStatus.REJECTED) || booking.getStart().isAfter(created)));
+        ItemDto itemDto = mapper.toDto(item, item.getOwner().getId(), null, comments);
+        boolean userHasBooking = bookingRepository.existsByBookerIdAndItemIdAndStatusNotAndStartLessThanEqual(userId,
+                itemId,
+                BookingStatus.REJECTED,
+                created);
         if (itemDto == null || !userHasBooking) {
             throw new UnavailableItemException("Предмет не найден или на него не было бронирования от указанного пользователя");
         }
         if (commentDto.getText().isEmpty()) {
             throw new InvalidDataException("Текст комментария отсутствует");
         }
-        return commentMapper.toDto(commentRepository.save(commentMapper.toEntity(commentDto, user, item)));
+        CommentDto comment = commentMapper.toDto(commentRepository.save(commentMapper.toEntity(commentDto, user, item)));
+        itemCache.evict(itemId);
+        return comment;
+    }
+
+    //summaries and comments are loaded for all items at once
+    private List<ItemDto> toOwnerDtos(List<Item> items, long userId) {
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = summaryService.getSummaries(itemIds);
+        Map<Long, List<CommentDto>> comments = commentRepository.findByItemIdIn(itemIds)
+                .stream()
+                .map(commentMapper::toDto)
+                .collect(Collectors.groupingBy(CommentDto::getItemId));
+        return items.stream()
+                .map(item -> mapper.toDto(item,
+                        userId,
+                        summaries.get(item.getId()),
+                        comments.getOrDefault(item.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
     }
 
+    //the reference is not loaded, only its id is written or compared
     private User checkUserId(Long userId) {
-        try {
-            return userRepository.findById(userId).orElseThrow(EntityNotFoundException::new);
-        } catch (EntityNotFoundException e) {
+        if (!userCache.exists(userId)) {
             log.error("Пользователь {} не существует", userId);
             throw new OwnerNotFoundException("Владелец предмета не найден");
         }
+        return userRepository.getById(userId);
     }
 }
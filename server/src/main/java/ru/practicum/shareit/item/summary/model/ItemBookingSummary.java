@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.summary.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+//denormalized last/next booking of an item, valid until the next booking starts
+@Entity
+@Table(name = "item_booking_summary", schema = "public")
+@Getter
+@Setter
+@ToString
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "last_status")
+    private BookingStatus lastStatus;
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "next_status")
+    private BookingStatus nextStatus;
+    @Column(name = "valid_until", nullable = false)
+    private LocalDateTime validUntil;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemBookingSummary)) return false;
+        return itemId != null && itemId.equals(((ItemBookingSummary) o).getItemId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.summary.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import ru.practicum.shareit.item.summary.model.ItemBookingSummary;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    //summaries whose next booking has already started
+    List<ItemBookingSummary> findByValidUntilLessThanEqualOrderByValidUntil(LocalDateTime now, Pageable pageable);
+
+    //rows are locked in item id order before recalculation, so concurrent refreshes of one item run one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ItemBookingSummary> findByItemIdInOrderByItemId(Collection<Long> itemIds);
+}
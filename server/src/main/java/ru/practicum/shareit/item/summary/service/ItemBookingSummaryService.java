@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.summary.service;
+
+import ru.practicum.shareit.item.summary.model.ItemBookingSummary;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ItemBookingSummaryService {
+    ItemBookingSummary refresh(long itemId);
+
+    ItemBookingSummary getSummary(long itemId);
+
+    Map<Long, ItemBookingSummary> getSummaries(Collection<Long> itemIds);
+
+    int rollForward();
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.item.summary.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.service.ItemCache;
+import ru.practicum.shareit.item.summary.model.ItemBookingSummary;
+import ru.practicum.shareit.item.summary.repository.ItemBookingSummaryRepository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+    private static final int ROLL_FORWARD_BATCH = 500;
+
+    private final ItemBookingSummaryRepository repository;
+    private final BookingRepository bookingRepository;
+    private final ItemCache itemCache;
+
+    @Override
+    @Transactional
+    public ItemBookingSummary refresh(long itemId) {
+        ItemBookingSummary summary = lock(List.of(newSummary(itemId))).get(0);
+        update(List.of(summary), LocalDateTime.now());
+        return summary;
+    }
+
+    @Override
+    @Transactional
+    public ItemBookingSummary getSummary(long itemId) {
+        return getSummaries(List.of(itemId)).get(itemId);
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, ItemBookingSummary> getSummaries(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = repository.findAllById(itemIds)
+                .stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        //rows not rolled forward by the scheduler yet are recalculated on read
+        List<ItemBookingSummary> stale = itemIds.stream()
+                .distinct()
+                .map(itemId -> summaries.computeIfAbsent(itemId, this::newSummary))
+                .filter(summary -> !summary.getValidUntil().isAfter(now))
+                .collect(Collectors.toList());
+        List<ItemBookingSummary> locked = lock(stale);
+        locked.forEach(summary -> summaries.put(summary.getItemId(), summary));
+        update(locked, now);
+        return summaries;
+    }
+
+    //moves last/next forward for items whose next booking has started, one batch per run
+    @Override
+    @Scheduled(fixedDelayString = "${shareit.item-booking-summary.roll-forward-delay:60000}")
+    @Transactional
+    public int rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemBookingSummary> stale = lock(repository.findByValidUntilLessThanEqualOrderByValidUntil(now,
+                PageRequest.of(0, ROLL_FORWARD_BATCH)));
+        update(stale, now);
+        stale.forEach(summary -> itemCache.evict(summary.getItemId()));
+        if (!stale.isEmpty()) {
+            log.info("Обновлены последнее и следующее бронирование для {} предметов", stale.size());
+        }
+        return stale.size();
+    }
+
+    //bookings are read after the lock, so the last of concurrent refreshes writes a snapshot with all of them
+    private List<ItemBookingSummary> lock(List<ItemBookingSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        Map<Long, ItemBookingSummary> locked = repository.findByItemIdInOrderByItemId(summaries.stream()
+                        .map(ItemBookingSummary::getItemId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        return summaries.stream()
+                .map(summary -> locked.getOrDefault(summary.getItemId(), summary))
+                .collect(Collectors.toList());
+    }
+
+    private void update(List<ItemBookingSummary> summaries, LocalDateTime now) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        List<Long> itemIds = summaries.stream()
+                .map(ItemBookingSummary::getItemId)
+                .collect(Collectors.toList());
+        Map<Long, Booking> lastBookings = bookingRepository.findLastBookingsByItemIds(itemIds, now)
+                .stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(), (first, second) -> first));
+        Map<Long, Booking> nextBookings = bookingRepository.findNextBookingsByItemIds(itemIds, now)
+                .stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(), (first, second) -> first));
+        for (ItemBookingSummary summary : summaries) {
+            Booking last = lastBookings.get(summary.getItemId());
+            Booking next = nextBookings.get(summary.getItemId());
+            summary.setLastBookingId(last == null ? null : last.getId());
+            summary.setLastBookerId(last == null ? null : last.getBooker().getId());
+            summary.setLastStatus(last == null ? null : last.getStatus());
+            summary.setNextBookingId(next == null ? null : next.getId());
+            summary.setNextBookerId(next == null ? null : next.getBooker().getId());
+            summary.setNextStatus(next == null ? null : next.getStatus());
+            summary.setValidUntil(next == null ? MAX_TIME : next.getStart());
+        }
+        repository.saveAll(summaries);
+    }
+
+    private ItemBookingSummary newSummary(Long itemId) {
+        ItemBookingSummary summary = new ItemBookingSummary();
+        summary.setItemId(itemId);
+        summary.setValidUntil(MIN_TIME);
+        return summary;
+    }
+}
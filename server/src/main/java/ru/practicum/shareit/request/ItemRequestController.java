@@ -2,10 +2,14 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.stream.NdjsonWriter;
 
 import java.util.List;
 
@@ -16,38 +20,45 @@ import java.util.List;
 @Slf4j
 public class ItemRequestController {
     private final ItemRequestService service;
+    private final NdjsonWriter ndjsonWriter;
 
     @PostMapping
     public ItemRequestDto addRequest(@RequestBody ItemRequestDto dto, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("addRequest started: dto {}, userId {}", dto, userId);
+        log.debug("addRequest started: dto {}, userId {}", dto, userId);
         ItemRequestDto itemRequestDto = service.addRequest(dto, userId);
-        log.info("addRequest finished");
+        log.debug("addRequest finished");
         return itemRequestDto;
     }
 
     @GetMapping
     public List<ItemRequestDto> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("getAllRequests: userId {}", userId);
+        log.debug("getAllRequests: userId {}", userId);
         List<ItemRequestDto> itemRequestDtos = service.getAllRequests(userId);
-        log.info("getAllRequests finished");
+        log.debug("getAllRequests finished");
         return itemRequestDtos;
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("streamAllRequests: userId {}", userId);
+        return ndjsonWriter.<ItemRequestDto>write(consumer -> service.streamAllRequests(userId, consumer));
+    }
+
     @GetMapping("/all")
     public List<ItemRequestDto> getAllRequestsPageable(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                        @RequestParam(defaultValue = "0") Integer from,
                                                        @RequestParam(defaultValue = "10") Integer size) {
-        log.info("getAllRequestsPageable started: userId {}, from {}, size {}", userId, from, size);
+        log.debug("getAllRequestsPageable started: userId {}, from {}, size {}", userId, from, size);
         List<ItemRequestDto> itemRequestDtos = service.getAllRequestsPageable(userId, from, size);
-        log.info("getAllRequestsPageable finished");
+        log.debug("getAllRequestsPageable finished");
         return itemRequestDtos;
     }
 
     @GetMapping("/{id}")
     public ItemRequestDto getRequest(@PathVariable("id") Long requestId, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("getRequest started: requestId {}, userId {}", requestId, userId);
+        log.debug("getRequest started: requestId {}, userId {}", requestId, userId);
         ItemRequestDto itemRequestDto = service.getRequest(requestId, userId);
-        log.info("getRequest finished");
+        log.debug("getRequest finished");
         return itemRequestDto;
     }
 }
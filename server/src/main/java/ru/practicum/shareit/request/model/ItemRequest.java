@@ -22,7 +22,8 @@ public class ItemRequest {
     private String description;
     @CreationTimestamp
     private LocalDateTime created = LocalDateTime.now();
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ToString.Exclude
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
@@ -3,17 +3,28 @@ package ru.practicum.shareit.request.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.stream.StreamChunks;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findAllByOwnerOrderByCreatedDesc(User owner);
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamChunks.FETCH_SIZE))
+    @Query("SELECT ir FROM ItemRequest ir WHERE ir.owner.id = :ownerId ORDER BY ir.created DESC")
+    Stream<ItemRequest> streamAllByOwnerId(@Param("ownerId") Long ownerId);
+
     @Query("SELECT ir FROM ItemRequest ir WHERE ir.owner.id != ?1")
     List<ItemRequest> findByRequester_IdNot(Long id, Pageable pageable);
 }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.service;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemRequestService {
 
@@ -10,6 +11,8 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAllRequests(Long userId);
 
+    void streamAllRequests(Long userId, Consumer<ItemRequestDto> consumer);
+
     List<ItemRequestDto> getAllRequestsPageable(Long userId, Integer from, Integer size);
 
     ItemRequestDto getRequest(Long requestId, Long userId);
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -8,29 +9,39 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.exception.OwnerNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDtoForRequest;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.stream.StreamChunks;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
-import javax.persistence.EntityNotFoundException;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("shareit.service")
 @RequiredArgsConstructor
 @Slf4j
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository repository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRequestMapper mapper;
     private final ItemMapper itemMapper;
+    private final EntityManager entityManager;
 
     @Override
     public ItemRequestDto addRequest(ItemRequestDto dto, Long userId) {
@@ -43,27 +54,30 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .stream()
                 .map(mapper::toDto)
                 .collect(Collectors.toList());
-        itemRequestDtos.forEach(itemRequestDto -> itemRequestDto
-                .setItems(itemRepository.findAllByRequestId(
-                                itemRequestDto.getId())
-                        .stream()
-                        .map(itemMapper::toDtoForRequest)
-                        .collect(Collectors.toList())));
+        setItems(itemRequestDtos);
         return itemRequestDtos;
     }
 
+    @Override
+    @Transactional
+    public void streamAllRequests(Long userId, Consumer<ItemRequestDto> consumer) {
+        checkUserId(userId);
+        StreamChunks.forEachChunk(repository.streamAllByOwnerId(userId), entityManager, itemRequests -> {
+            List<ItemRequestDto> itemRequestDtos = itemRequests.stream()
+                    .map(mapper::toDto)
+                    .collect(Collectors.toList());
+            setItems(itemRequestDtos);
+            itemRequestDtos.forEach(consumer);
+        });
+    }
+
     @Override
     public List<ItemRequestDto> getAllRequestsPageable(Long userId, Integer from, Integer size) {
         Sort sortById = Sort.by(Sort.Direction.ASC, "id");
         Pageable page = PageRequest.of(from, size, sortById);
         checkUserId(userId);
         List<ItemRequestDto> itemRequestDtos = repository.findByRequester_IdNot(userId, page).stream().map(mapper::toDto).collect(Collectors.toList());
-        itemRequestDtos.forEach(itemRequestDto -> itemRequestDto
-                .setItems(itemRepository.findAllByRequestId(
-                                itemRequestDto.getId())
-                        .stream()
-                        .map(itemMapper::toDtoForRequest)
-                        .collect(Collectors.toList())));
+        setItems(itemRequestDtos);
         return itemRequestDtos;
     }
 
@@ -72,23 +86,34 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         Optional<ItemRequest> itemRequest = repository.findById(requestId);
         if (itemRequest.isPresent() && checkUserId(userId) != null) {
             ItemRequestDto itemRequestDto = mapper.toDto(itemRequest.get());
-            itemRequestDto.setItems(itemRepository.findAllByRequestId(
-                            itemRequestDto.getId())
-                    .stream()
-                    .map(itemMapper::toDtoForRequest)
-                    .collect(Collectors.toList()));
+            setItems(List.of(itemRequestDto));
             return itemRequestDto;
         } else {
             throw new ItemRequestNotFoundException("Запрос не найден");
         }
     }
 
+    //load items for all requests with one query
+    private void setItems(List<ItemRequestDto> itemRequestDtos) {
+        if (itemRequestDtos.isEmpty()) {
+            return;
+        }
+        Map<Long, List<ItemDtoForRequest>> itemsByRequest = itemRepository.findAllByRequestIdIn(itemRequestDtos.stream()
+                        .map(ItemRequestDto::getId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .map(itemMapper::toDtoForRequest)
+                .collect(Collectors.groupingBy(ItemDtoForRequest::getRequestId));
+        itemRequestDtos.forEach(itemRequestDto -> itemRequestDto
+                .setItems(itemsByRequest.getOrDefault(itemRequestDto.getId(), new ArrayList<>())));
+    }
+
+    //the reference is not loaded, only its id is written or compared
     private User checkUserId(Long userId) {
-        try {
-            return userRepository.findById(userId).orElseThrow(EntityNotFoundException::new);
-        } catch (EntityNotFoundException e) {
+        if (!userCache.exists(userId)) {
             log.error("Пользователь {} не существует", userId);
             throw new OwnerNotFoundException("Владелец предмета не найден");
         }
+        return userRepository.getById(userId);
     }
 }
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.config.RequestLogFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class NdjsonWriter {
+    private final ObjectMapper objectMapper;
+
+    //writes every value the producer emits as one JSON line, nothing is collected before writing
+    public <T> ResponseEntity<StreamingResponseBody> write(Consumer<Consumer<T>> producer) {
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        //the body is written on an async thread, the count is handed to the request log of the async dispatch
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        StreamingResponseBody body = out -> {
+            AtomicLong count = new AtomicLong();
+            producer.accept(value -> {
+                try {
+                    writer.writeValue(out, value);
+                    out.write('\n');
+                    count.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+            if (attributes instanceof ServletRequestAttributes) {
+                RequestLogFilter.setResultCount(((ServletRequestAttributes) attributes).getRequest(), count.get());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
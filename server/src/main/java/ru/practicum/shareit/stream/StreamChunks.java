@@ -0,0 +1,34 @@
+package ru.practicum.shareit.stream;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public final class StreamChunks {
+    public static final String FETCH_SIZE = "100";
+    public static final int CHUNK_SIZE = 100;
+
+    private StreamChunks() {
+    }
+
+    //passes rows on in chunks and detaches them afterwards, so the persistence context never holds more than a chunk,
+    //changes made while handling a chunk are flushed before detaching
+    public static <T> void forEachChunk(Stream<T> rows, EntityManager entityManager, Consumer<List<T>> action) {
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    action.accept(chunk);
+                    entityManager.flush();
+                    entityManager.clear();
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+        }
+    }
+}
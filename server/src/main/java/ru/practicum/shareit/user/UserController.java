@@ -2,7 +2,11 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.stream.NdjsonWriter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -14,43 +18,50 @@ import java.util.List;
 @Slf4j
 public class UserController {
     private final UserService service;
+    private final NdjsonWriter ndjsonWriter;
 
     @GetMapping
     public List<UserDto> getAllUsers() {
-        log.info("Обработка запроса getAllUsers начата");
+        log.debug("Обработка запроса getAllUsers начата");
         List<UserDto> users = service.getAllUsers();
-        log.info("Результат запроса getAllUsers: {}", users);
+        log.debug("Результат запроса getAllUsers: {}", users);
         return users;
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.debug("Потоковая выгрузка getAllUsers начата");
+        return ndjsonWriter.write(service::streamAllUsers);
+    }
+
     @GetMapping("/{id}")
     public UserDto getUser(@PathVariable long id) {
-        log.info("id для запроса getUser: {}", id);
+        log.debug("id для запроса getUser: {}", id);
         UserDto userDto = service.getUser(id);
-        log.info("Результат запроса getUser: {}", userDto);
+        log.debug("Результат запроса getUser: {}", userDto);
         return userDto;
     }
 
     @PostMapping()
     public UserDto addUser(@RequestBody UserDto user) {
-        log.info("user для запроса addUser: {}", user);
+        log.debug("user для запроса addUser: {}", user);
         UserDto userDto = service.addUser(user);
-        log.info("Результат запроса addUser: {}", userDto);
+        log.debug("Результат запроса addUser: {}", userDto);
         return userDto;
     }
 
     @DeleteMapping("/{id}")
     public void deleteUser(@PathVariable long id) {
-        log.info("Удаление пользователя с id {} начато", id);
+        log.debug("Удаление пользователя с id {} начато", id);
         service.deleteUser(id);
-        log.info("Удаление пользователя с id {} завершено", id);
+        log.debug("Удаление пользователя с id {} завершено", id);
     }
 
     @PatchMapping("/{id}")
     public UserDto patchUser(@PathVariable long id, @RequestBody UserDto user) {
-        log.info("patchUser: id {}, user {} патч начат", id, user);
+        log.debug("patchUser: id {}, user {} патч начат", id, user);
         UserDto userDto = service.patchUser(id, user);
-        log.info("Патч завершен. Результат: {}", userDto);
+        log.debug("Патч завершен. Результат: {}", userDto);
         return userDto;
     }
 }
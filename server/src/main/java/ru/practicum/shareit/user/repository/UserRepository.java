@@ -1,7 +1,19 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.stream.StreamChunks;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+    //read with a database cursor, see StreamChunks
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamChunks.FETCH_SIZE))
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
 }
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Objects;
+
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+    public static final String USERS = "users";
+
+    private final CacheManager cacheManager;
+    private final UserRepository repository;
+
+    //loading runs inside the cache, so an evict issued meanwhile waits for it and removes the loaded value
+    public boolean exists(long userId) {
+        try {
+            return Boolean.TRUE.equals(users().get(userId, () -> repository.existsById(userId)));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    //a check running before the commit still sees the old row, the entry is dropped only once the change is visible
+    public void evictAfterCommit(long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    public void evict(long userId) {
+        users().evict(userId);
+    }
+
+    private Cache users() {
+        return Objects.requireNonNull(cacheManager.getCache(USERS), "Кэш " + USERS + " не настроен");
+    }
+}
@@ -3,10 +3,13 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     List<UserDto> getAllUsers();
 
+    void streamAllUsers(Consumer<UserDto> consumer);
+
     UserDto getUser(long id);
 
     UserDto addUser(UserDto user);
@@ -1,22 +1,29 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.stream.StreamChunks;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("shareit.service")
 @RequiredArgsConstructor
 @Transactional
 public class UserServiceImpl implements UserService {
     private final UserRepository repository;
     private final UserMapper mapper;
+    private final EntityManager entityManager;
+    private final UserCache userCache;
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -26,6 +33,13 @@ public class UserServiceImpl implements UserService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void streamAllUsers(Consumer<UserDto> consumer) {
+        StreamChunks.forEachChunk(repository.streamAll(), entityManager, users -> users.stream()
+                .map(mapper::toDto)
+                .forEach(consumer));
+    }
+
     @Override
     public UserDto getUser(long id) {
         return mapper.toDto(repository.getById(id));
@@ -34,12 +48,15 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDto addUser(UserDto userDto) {
-        return mapper.toDto(repository.save(mapper.toEntity(userDto)));
+        User user = repository.save(mapper.toEntity(userDto));
+        userCache.evictAfterCommit(user.getId());
+        return mapper.toDto(user);
     }
 
     @Override
     public void deleteUser(long id) {
         repository.deleteById(id);
+        userCache.evictAfterCommit(id);
     }
 
     @Override
@@ -51,6 +68,8 @@ public class UserServiceImpl implements UserService {
         if (patch.getEmail() != null) {
             user.setEmail(patch.getEmail());
         }
-        return mapper.toDto(repository.save(user));
+        UserDto patched = mapper.toDto(repository.save(user));
+        userCache.evictAfterCommit(id);
+        return patched;
     }
 }
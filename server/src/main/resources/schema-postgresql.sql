@@ -0,0 +1,17 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_NAME_TRGM ON Items USING GIN (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_DESCRIPTION_TRGM ON Items USING GIN (lower(description) gin_trgm_ops);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- created once, the body is single-quoted so the default ; separator does not split it
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = ''booking''::regclass
+            AND conname = ''excl_booking_approved_overlap'') THEN
+        ALTER TABLE Booking ADD CONSTRAINT EXCL_BOOKING_APPROVED_OVERLAP
+                EXCLUDE USING GIST (item_id WITH =, tsrange(start_time, end_time) WITH &&) WHERE (status = ''APPROVED'');
+    END IF;
+END
+';
@@ -28,12 +28,22 @@ CREATE TABLE IF NOT EXISTS Booking (
         end_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
         item_id BIGINT NOT NULL,
         booker_id BIGINT NOT NULL,
+        owner_id BIGINT NOT NULL,
         status varchar(18) NOT NULL,
+        version BIGINT NOT NULL DEFAULT 0,
         CONSTRAINT START_IS_BEFORE_END CHECK(start_time<=end_time),
         CONSTRAINT FK_BOOKING_ON_BOOKER FOREIGN KEY (booker_id) REFERENCES users (id),
-        CONSTRAINT FK_BOOKING_ON_ITEM FOREIGN KEY (item_id) REFERENCES items (id)
+        CONSTRAINT FK_BOOKING_ON_ITEM FOREIGN KEY (item_id) REFERENCES items (id),
+        CONSTRAINT FK_BOOKING_ON_OWNER FOREIGN KEY (owner_id) REFERENCES users (id)
 );
 
+ALTER TABLE Booking ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- owner of the booked item is copied onto the booking, owner lists are read from IDX_BOOKING_OWNER_START
+ALTER TABLE Booking ADD COLUMN IF NOT EXISTS owner_id BIGINT REFERENCES users (id);
+UPDATE Booking SET owner_id = (SELECT i.owner_id FROM Items i WHERE i.id = Booking.item_id) WHERE owner_id IS NULL;
+ALTER TABLE Booking ALTER COLUMN owner_id SET NOT NULL;
+
 CREATE TABLE IF NOT EXISTS Comments(
         id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
         text varchar NOT NULL,
@@ -44,3 +54,34 @@ CREATE TABLE IF NOT EXISTS Comments(
         CONSTRAINT FK_COMMENT_ON_ITEM FOREIGN KEY (item_id) REFERENCES items (id)
 );
 
+CREATE TABLE IF NOT EXISTS Item_Booking_Summary(
+        item_id BIGINT PRIMARY KEY,
+        last_booking_id BIGINT,
+        last_booker_id BIGINT,
+        last_status varchar(18),
+        next_booking_id BIGINT,
+        next_booker_id BIGINT,
+        next_status varchar(18),
+        valid_until TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+        CONSTRAINT FK_SUMMARY_ON_ITEM FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+-- existing items get an expired summary, it is recalculated on first read or by the scheduler
+INSERT INTO Item_Booking_Summary (item_id, valid_until)
+SELECT i.id, TIMESTAMP '0001-01-01 00:00:00' FROM Items i
+WHERE NOT EXISTS (SELECT 1 FROM Item_Booking_Summary s WHERE s.item_id = i.id);
+
+CREATE INDEX IF NOT EXISTS IDX_ITEM_REQUESTS_OWNER_CREATED ON Item_Requests (owner_id, created DESC);
+
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_OWNER ON Items (owner_id, id);
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_REQUEST ON Items (request_id);
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_BOOKER_START ON Booking (booker_id, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_ITEM_START ON Booking (item_id, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_OWNER_START ON Booking (owner_id, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_BOOKER_ITEM ON Booking (booker_id, item_id, status, start_time);
+
+CREATE INDEX IF NOT EXISTS IDX_COMMENTS_ITEM ON Comments (item_id);
+CREATE INDEX IF NOT EXISTS IDX_COMMENTS_AUTHOR ON Comments (author_id);
+
+CREATE INDEX IF NOT EXISTS IDX_ITEM_BOOKING_SUMMARY_VALID_UNTIL ON Item_Booking_Summary (valid_until);
@@ -0,0 +1,199 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.RequestLogFilter;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.comments.model.Comment;
+import ru.practicum.shareit.item.comments.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.stream.StreamChunks;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Streams owner items and requests as NDJSON through the whole server stack against H2. The owner has enough rows
+ * for three chunks, so bookings, comments and answering items have to be looked up again for every chunk after the
+ * persistence context was cleared.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:ndjsonStreaming;MODE=PostgreSQL",
+        "spring.sql.init.platform=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+public class NdjsonStreamingTest {
+    private static final int ROWS = StreamChunks.CHUNK_SIZE * 2 + 1;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private User owner;
+    private User requester;
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Long> requestIds = new ArrayList<>();
+
+    @BeforeAll
+    void seedData() {
+        owner = saveUser("owner");
+        User booker = saveUser("booker");
+        requester = saveUser("requester");
+        for (int i = 0; i < ROWS; i++) {
+            ItemRequest itemRequest = new ItemRequest();
+            itemRequest.setDescription("request" + i);
+            itemRequest.setOwner(requester);
+            itemRequest = itemRequestRepository.save(itemRequest);
+            requestIds.add(itemRequest.getId());
+
+            Item item = new Item();
+            item.setName("item" + i);
+            item.setDescription("description" + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            item.setRequest(itemRequest);
+            item = itemRepository.save(item);
+            itemIds.add(item.getId());
+
+            Booking booking = new Booking();
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStatus(BookingStatus.APPROVED);
+            booking.setStart(LocalDateTime.now().minusDays(2));
+            booking.setEnd(LocalDateTime.now().minusDays(1));
+            bookingRepository.save(booking);
+
+            Comment comment = new Comment();
+            comment.setText("comment" + i);
+            comment.setItem(item);
+            comment.setAuthor(booker);
+            comment.setCreated(LocalDateTime.now());
+            commentRepository.save(comment);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void streamAllItemsByOwner_whenMoreItemsThanChunk_thenEveryItemWithItsBookingAndComments() {
+        List<JsonNode> items = stream("/items", owner.getId(), ROWS);
+
+        for (int i = 0; i < ROWS; i++) {
+            JsonNode item = items.get(i);
+            assertEquals(itemIds.get(i).longValue(), item.get("id").asLong());
+            assertEquals("item" + i, item.get("name").asText());
+            assertEquals(1, item.get("comments").size());
+            assertEquals("comment" + i, item.get("comments").get(0).get("text").asText());
+            assertFalse(item.get("lastBooking").isNull(), "Нет последнего бронирования у " + item);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void streamAllRequests_whenMoreRequestsThanChunk_thenEveryRequestWithItsItems() {
+        List<JsonNode> requests = stream("/requests", requester.getId(), ROWS);
+
+        List<Long> streamedIds = new ArrayList<>();
+        for (JsonNode request : requests) {
+            streamedIds.add(request.get("id").asLong());
+            int i = requestIds.indexOf(request.get("id").asLong());
+            assertEquals(1, request.get("items").size());
+            assertEquals(itemIds.get(i).longValue(), request.get("items").get(0).get("id").asLong());
+        }
+        //created is set on insert, the newest request comes first like in the JSON list
+        List<Long> newestFirst = new ArrayList<>(requestIds);
+        Collections.reverse(newestFirst);
+        assertEquals(newestFirst, streamedIds);
+    }
+
+    @Test
+    @SneakyThrows
+    void streamAllItemsByOwner_whenUserUnknown_thenEmptyStreamLikeJsonList() {
+        stream("/items", 999L, 0);
+    }
+
+    @Test
+    @SneakyThrows
+    void streamAllRequests_whenUserUnknown_thenNotFound() {
+        MvcResult result = mvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", 999L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Владелец предмета не найден"));
+    }
+
+    @SneakyThrows
+    private List<JsonNode> stream(String path, long userId, long expectedLines) {
+        MvcResult result = mvc.perform(get(path)
+                        .header("X-Sharer-User-Id", userId)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().attribute(RequestLogFilter.COUNT_ATTRIBUTE, expectedLines))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(mapper.readTree(line));
+            }
+        }
+        assertEquals(expectedLines, lines.size());
+        return lines;
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@mail.ru");
+        return userRepository.save(user);
+    }
+}
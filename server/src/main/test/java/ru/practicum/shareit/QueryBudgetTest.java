@@ -0,0 +1,199 @@
+package ru.practicum.shareit;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.comments.model.Comment;
+import ru.practicum.shareit.item.comments.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.model.ItemBookingSummary;
+import ru.practicum.shareit.item.summary.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.summary.service.ItemBookingSummaryService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sends read requests through the whole server stack against H2 and checks how many SQL statements each one
+ * issues. Every owner, item and request has several children, so an N+1 query pattern exceeds its budget.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:queryBudget;MODE=PostgreSQL",
+        "spring.sql.init.platform=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+public class QueryBudgetTest {
+    private static final int ITEMS = 10;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+
+    private QueryCounter queryCounter;
+    private User owner;
+    private User booker;
+    private User requester;
+    private Item item;
+    private ItemRequest request;
+    private Booking booking;
+
+    @BeforeAll
+    void seedData() {
+        queryCounter = new QueryCounter(entityManagerFactory);
+        owner = saveUser("owner");
+        booker = saveUser("booker");
+        requester = saveUser("requester");
+        List<ItemRequest> requests = new ArrayList<>();
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < ITEMS / 2; i++) {
+            ItemRequest itemRequest = new ItemRequest();
+            itemRequest.setDescription("request" + i);
+            itemRequest.setCreated(LocalDateTime.now().minusDays(i));
+            itemRequest.setOwner(requester);
+            requests.add(itemRequestRepository.save(itemRequest));
+        }
+        for (int i = 0; i < ITEMS; i++) {
+            Item newItem = new Item();
+            newItem.setName("item" + i);
+            newItem.setDescription("description" + i);
+            newItem.setAvailable(true);
+            newItem.setOwner(owner);
+            newItem.setRequest(requests.get(i / 2));
+            newItem = itemRepository.save(newItem);
+            for (int days = -2; days <= 2; days += 4) {
+                Booking newBooking = new Booking();
+                newBooking.setItem(newItem);
+                newBooking.setBooker(booker);
+                newBooking.setStatus(BookingStatus.APPROVED);
+                newBooking.setStart(LocalDateTime.now().plusDays(days));
+                newBooking.setEnd(LocalDateTime.now().plusDays(days + 1));
+                booking = bookingRepository.save(newBooking);
+            }
+            for (int j = 0; j < 2; j++) {
+                Comment comment = new Comment();
+                comment.setText("comment" + j);
+                comment.setItem(newItem);
+                comment.setAuthor(booker);
+                comment.setCreated(LocalDateTime.now());
+                commentRepository.save(comment);
+            }
+            item = newItem;
+            itemIds.add(newItem.getId());
+        }
+        request = requests.get(0);
+        summaryService.getSummaries(itemIds);
+    }
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @SneakyThrows
+    @ParameterizedTest(name = "{0} {1}")
+    @CsvSource({
+            "GET /items,                 /items,                        owner,     3",
+            "GET /items/{id},            /items/{item},                 owner,     3",
+            "GET /items/search,          /items/search?text=item,       booker,    2",
+            "GET /bookings,              /bookings?state=ALL,           booker,    2",
+            "GET /bookings/owner,        /bookings/owner?state=ALL,     owner,     2",
+            "GET /bookings/{id},         /bookings/{booking},           booker,    2",
+            "GET /requests,              /requests,                     requester, 3",
+            "GET /requests/all,          /requests/all,                 owner,     3",
+            "GET /requests/{id},         /requests/{request},           requester, 3",
+            "GET /users,                 /users,                        owner,     1"
+    })
+    void readRequests_whenServed_thenStatementsWithinBudget(String name, String path, String user, long budget) {
+        String uri = path.replace("{item}", item.getId().toString())
+                .replace("{booking}", booking.getId().toString())
+                .replace("{request}", request.getId().toString());
+        long userId = userId(user);
+        queryCounter.assertAtMost(budget, name, () -> mvc.perform(get(uri).header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    @SneakyThrows
+    void ownerItems_whenSummariesStale_thenRecalculatedInOneBatch() {
+        List<ItemBookingSummary> summaries = summaryRepository.findAll();
+        summaries.forEach(summary -> summary.setValidUntil(LocalDateTime.now().minusDays(1)));
+        summaryRepository.saveAll(summaries);
+
+        queryCounter.assertAtMost(7, "GET /items с устаревшими бронированиями",
+                () -> mvc.perform(get("/items").header("X-Sharer-User-Id", owner.getId()))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    @SneakyThrows
+    void bookings_whenUserCached_thenExistenceNotQueried() {
+        mvc.perform(get("/bookings?state=ALL").header("X-Sharer-User-Id", booker.getId()))
+                .andExpect(status().isOk());
+
+        queryCounter.assertAtMost(1, "GET /bookings с пользователем в кэше",
+                () -> mvc.perform(get("/bookings?state=ALL").header("X-Sharer-User-Id", booker.getId()))
+                        .andExpect(status().isOk()));
+    }
+
+    private long userId(String user) {
+        switch (user) {
+            case "owner":
+                return owner.getId();
+            case "booker":
+                return booker.getId();
+            default:
+                return requester.getId();
+        }
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@mail.ru");
+        return userRepository.save(user);
+    }
+}
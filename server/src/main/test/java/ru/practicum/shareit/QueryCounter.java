@@ -0,0 +1,32 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.function.Executable;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Counts JDBC statements Hibernate prepares while an action runs. The context under test needs
+ * spring.jpa.properties.hibernate.generate_statistics=true.
+ */
+public class QueryCounter {
+    private final Statistics statistics;
+
+    public QueryCounter(EntityManagerFactory entityManagerFactory) {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public long count(Executable action) throws Throwable {
+        statistics.clear();
+        action.execute();
+        return statistics.getPrepareStatementCount();
+    }
+
+    public void assertAtMost(long budget, String name, Executable action) throws Throwable {
+        long statements = count(action);
+        if (statements > budget) {
+            throw new AssertionError(name + " выполнил " + statements + " SQL-запросов, бюджет " + budget);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.comments.model.Comment;
+import ru.practicum.shareit.item.comments.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every custom repository finder against seeded H2 data and checks with EXPLAIN
+ * that none of them scans a large table. A finder added without an entry in
+ * {@link #finders()} fails {@link #finders_whenRepositoryMethodAdded_thenPlanIsChecked()}.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.platform=h2",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.shareit.RepositoryQueryPlanTest$SqlCollector"
+})
+public class RepositoryQueryPlanTest {
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(BOOKING|ITEMS|COMMENTS|ITEM_REQUESTS|ITEM_BOOKING_SUMMARY)\\.tableScan");
+    private static final Pattern OWNER_SEEK = Pattern.compile("\"BOOKING0_\"\\s+/\\* PUBLIC\\.\\w+: OWNER_ID = \\?1");
+    //H2 has no trigram index, PostgreSQL serves searchAvailable with IDX_ITEMS_*_TRGM from schema-postgresql.sql
+    private static final Map<String, Set<String>> ALLOWED_SCANS = Map.of(
+            "ItemRepository.searchAvailable", Set.of("ITEMS"),
+            "ItemRequestRepository.findByRequester_IdNot", Set.of("ITEM_REQUESTS"));
+
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    private User user;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void seedData() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User newUser = new User();
+            newUser.setName("user" + i);
+            newUser.setEmail("user" + i + "@mail.ru");
+            users.add(userRepository.save(newUser));
+        }
+        List<ItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ItemRequest request = new ItemRequest();
+            request.setDescription("request" + i);
+            request.setCreated(LocalDateTime.now().minusDays(i));
+            request.setOwner(users.get(i % users.size()));
+            requests.add(itemRequestRepository.save(request));
+        }
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Item newItem = new Item();
+            newItem.setName("item" + i);
+            newItem.setDescription("description" + i);
+            newItem.setAvailable(i % 3 != 0);
+            newItem.setOwner(users.get(i % users.size()));
+            newItem.setRequest(i % 4 == 0 ? requests.get(i % requests.size()) : null);
+            items.add(itemRepository.save(newItem));
+        }
+        for (int i = 0; i < 2000; i++) {
+            Booking booking = new Booking();
+            booking.setItem(items.get(i % items.size()));
+            booking.setBooker(users.get((i * 7) % users.size()));
+            booking.setStatus(BookingStatus.values()[i % 3]);
+            booking.setStart(LocalDateTime.now().plusDays(i - 1000));
+            booking.setEnd(LocalDateTime.now().plusDays(i - 999));
+            this.booking = bookingRepository.save(booking);
+        }
+        for (int i = 0; i < 500; i++) {
+            Comment comment = new Comment();
+            comment.setText("comment" + i);
+            comment.setItem(items.get(i % items.size()));
+            comment.setAuthor(users.get((i * 3) % users.size()));
+            comment.setCreated(LocalDateTime.now());
+            commentRepository.save(comment);
+        }
+        em.flush();
+        em.clear();
+        user = users.get(1);
+        item = items.get(1);
+    }
+
+    @Test
+    void finders_whenRepositoryMethodAdded_thenPlanIsChecked() {
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> repository : List.of(BookingRepository.class, ItemRepository.class, CommentRepository.class,
+                ItemRequestRepository.class, UserRepository.class, ItemBookingSummaryRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                declared.add(repository.getSimpleName() + "." + method.getName());
+            }
+        }
+
+        assertEquals(declared, new TreeSet<>(finders().keySet()));
+    }
+
+    @Test
+    void findByItemOwnerAfterCursor_whenExplained_thenOwnerIndexRead() {
+        LocalDateTime min = LocalDateTime.now().minusYears(100);
+        SqlCollector.SQL.clear();
+
+        bookingRepository.findByItemOwnerAfterCursor(user.getId(), List.of(BookingStatus.values()), min, min,
+                LocalDateTime.now().plusYears(100), LocalDateTime.now(), 100L, PageRequest.of(0, 10));
+
+        //H2 may pick the foreign key index on owner_id, PostgreSQL seeks IDX_BOOKING_OWNER_START in page order
+        String plan = explain(SqlCollector.SQL.get(0));
+        assertTrue(OWNER_SEEK.matcher(plan).find(), plan);
+        Booking loadedBooking = bookingRepository.findWithItemById(booking.getId()).orElseThrow();
+        assertEquals(loadedBooking.getItem().getOwner().getId(), loadedBooking.getOwner().getId());
+    }
+
+    @Test
+    void fetchPlans_whenEntitiesLoaded_thenOnlyUsedAssociationsInitialized() {
+        Booking loadedBooking = bookingRepository.findWithItemById(booking.getId()).orElseThrow();
+        assertTrue(Hibernate.isInitialized(loadedBooking.getItem()));
+        assertFalse(Hibernate.isInitialized(loadedBooking.getBooker()));
+        assertFalse(Hibernate.isInitialized(loadedBooking.getItem().getOwner()));
+        em.clear();
+
+        Item ownerItem = itemRepository.findAllByOwnerId(user.getId()).get(0);
+        assertFalse(Hibernate.isInitialized(ownerItem.getOwner()));
+        assertEquals(user.getId(), ownerItem.getOwner().getId());
+        assertFalse(Hibernate.isInitialized(ownerItem.getOwner()));
+        em.clear();
+
+        Comment comment = commentRepository.findByItemId(item.getId()).get(0);
+        assertTrue(Hibernate.isInitialized(comment.getAuthor()));
+        assertFalse(Hibernate.isInitialized(comment.getItem()));
+    }
+
+    @Test
+    void finders_whenExecutedOnSeededData_thenNoTableScans() {
+        finders().forEach((name, finder) -> {
+            SqlCollector.SQL.clear();
+            finder.run();
+            List<String> statements = new ArrayList<>(SqlCollector.SQL);
+            assertFalse(statements.isEmpty(), name + " не выполнил ни одного запроса");
+            for (String sql : statements) {
+                String plan = explain(sql);
+                Matcher matcher = TABLE_SCAN.matcher(plan);
+                while (matcher.find()) {
+                    if (!ALLOWED_SCANS.getOrDefault(name, Set.of()).contains(matcher.group(1))) {
+                        throw new AssertionError(name + " читает всю таблицу " + matcher.group(1) + ":\n" + plan);
+                    }
+                }
+            }
+        });
+    }
+
+    private Map<String, Runnable> finders() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+        List<BookingStatus> statuses = List.of(BookingStatus.values());
+        LocalDateTime min = now.minusYears(100);
+        LocalDateTime max = now.plusYears(100);
+        Map<String, Runnable> finders = new LinkedHashMap<>();
+        finders.put("BookingRepository.findByBookerIdOrderByStartDesc",
+                () -> bookingRepository.findByBookerIdOrderByStartDesc(user.getId(), page));
+        finders.put("BookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc",
+                () -> bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(user.getId(), now, page));
+        finders.put("BookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc",
+                () -> bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(user.getId(), now, now, page));
+        finders.put("BookingRepository.findByBookerIdAndStartAfterOrderByStartDesc",
+                () -> bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(user.getId(), now, page));
+        finders.put("BookingRepository.findByBookerIdAndStatusOrderByStartDesc",
+                () -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(user.getId(), BookingStatus.WAITING, page));
+        finders.put("BookingRepository.findByItemOwnerIdOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdOrderByStartDesc(user.getId(), page));
+        finders.put("BookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(user.getId(), now, page));
+        finders.put("BookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(user.getId(), now, now, page));
+        finders.put("BookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(user.getId(), now, page));
+        finders.put("BookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc",
+                () -> bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(user.getId(), BookingStatus.WAITING, page));
+        finders.put("BookingRepository.findByBookerAfterCursor",
+                () -> bookingRepository.findByBookerAfterCursor(user.getId(), statuses, min, min, max, now, 100L, page));
+        finders.put("BookingRepository.findByItemOwnerAfterCursor",
+                () -> bookingRepository.findByItemOwnerAfterCursor(user.getId(), statuses, min, min, max, now, 100L, page));
+        finders.put("BookingRepository.updateStatus",
+                () -> bookingRepository.updateStatus(100L, BookingStatus.WAITING, BookingStatus.APPROVED));
+        finders.put("BookingRepository.findWithItemById",
+                () -> bookingRepository.findWithItemById(booking.getId()));
+        finders.put("BookingRepository.existsByBookerIdAndItemIdAndStatusNotAndStartLessThanEqual",
+                () -> bookingRepository.existsByBookerIdAndItemIdAndStatusNotAndStartLessThanEqual(user.getId(),
+                        item.getId(), BookingStatus.REJECTED, now));
+        finders.put("BookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter",
+                () -> bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(),
+                        BookingStatus.APPROVED, now.plusDays(1), now));
+        finders.put("BookingRepository.findLastBookingsByItemIds",
+                () -> bookingRepository.findLastBookingsByItemIds(List.of(item.getId(), item.getId() + 1), now));
+        finders.put("BookingRepository.findNextBookingsByItemIds",
+                () -> bookingRepository.findNextBookingsByItemIds(List.of(item.getId(), item.getId() + 1), now));
+        finders.put("ItemRepository.findAllByRequestIdIn",
+                () -> itemRepository.findAllByRequestIdIn(List.of(item.getId(), item.getId() + 1)));
+        finders.put("ItemRepository.findAllByOwnerId",
+                () -> itemRepository.findAllByOwnerId(user.getId()));
+        finders.put("ItemRepository.streamAllByOwnerId",
+                () -> itemRepository.streamAllByOwnerId(user.getId()).forEach(streamed -> { }));
+        finders.put("ItemRepository.searchAvailable",
+                () -> itemRepository.searchAvailable("%item1%", page));
+        finders.put("CommentRepository.findByItemId",
+                () -> commentRepository.findByItemId(item.getId()));
+        finders.put("CommentRepository.findByItemIdIn",
+                () -> commentRepository.findByItemIdIn(List.of(item.getId(), item.getId() + 1)));
+        finders.put("ItemRequestRepository.findAllByOwnerOrderByCreatedDesc",
+                () -> itemRequestRepository.findAllByOwnerOrderByCreatedDesc(user));
+        finders.put("ItemRequestRepository.streamAllByOwnerId",
+                () -> itemRequestRepository.streamAllByOwnerId(user.getId()).forEach(streamed -> { }));
+        finders.put("ItemRequestRepository.findByRequester_IdNot",
+                () -> itemRequestRepository.findByRequester_IdNot(user.getId(),
+                        PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"))));
+        finders.put("UserRepository.streamAll",
+                () -> userRepository.streamAll().forEach(streamed -> { }));
+        finders.put("ItemBookingSummaryRepository.findByValidUntilLessThanEqualOrderByValidUntil",
+                () -> itemBookingSummaryRepository.findByValidUntilLessThanEqualOrderByValidUntil(now, page));
+        finders.put("ItemBookingSummaryRepository.findByItemIdInOrderByItemId",
+                () -> itemBookingSummaryRepository.findByItemIdInOrderByItemId(List.of(item.getId())));
+        return finders;
+    }
+
+    private String explain(String sql) {
+        StringBuilder plan = new StringBuilder();
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+            }
+        });
+        return plan.toString();
+    }
+
+    public static class SqlCollector implements StatementInspector {
+        private static final long serialVersionUID = 1L;
+        static final List<String> SQL = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            String statement = sql.trim().toLowerCase();
+            if (statement.startsWith("select") || statement.startsWith("update") || statement.startsWith("delete")) {
+                SQL.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the server on H2 with the Tomcat thread pool and with the virtual-threads profile, one after another in
+ * the same JVM and so under the same -Xmx. Each run gets five times more concurrent GET /users/{id} requests than
+ * the pool has threads, a test interceptor holds every request for a second before the controller like a slow
+ * upstream call. The comparison needs Java 21 and runs with mvn test -Djava21.home=..., on older runtimes only
+ * the fallback of the profile to the Tomcat pool is checked.
+ */
+public class VirtualThreadsLoadTest {
+    private static final int TOMCAT_THREADS = 200;
+    private static final int REQUESTS = TOMCAT_THREADS * 5;
+
+    static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @Test
+    void getUser_whenProfileActive_thenHandledOnThreadsOfRuntime() throws Exception {
+        try (ConfigurableApplicationContext context = startServer(true)) {
+            DelayingInterceptor interceptor = context.getBean(DelayingInterceptor.class);
+
+            HttpResponse<Void> response = HttpClient.newHttpClient()
+                    .send(getUser(context), HttpResponse.BodyHandlers.discarding());
+
+            assertEquals(200, response.statusCode());
+            Thread handlerThread = interceptor.lastThread.get();
+            if (virtualThreadsSupported()) {
+                assertTrue(isVirtual(handlerThread), "Запрос обработан в потоке " + handlerThread);
+            } else {
+                assertTrue(handlerThread.getName().startsWith("http-nio-"), "Запрос обработан в потоке " + handlerThread);
+            }
+        }
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsSupported")
+    void getUser_whenMoreRequestsThanTomcatThreads_thenVirtualThreadsServeMoreOnFewerPlatformThreads()
+            throws Exception {
+        LoadResult pool = runLoad(false);
+        LoadResult virtual = runLoad(true);
+        String results = "пул Tomcat: " + pool + ", виртуальные потоки: " + virtual;
+
+        assertTrue(pool.maxInFlight <= TOMCAT_THREADS, results);
+        assertTrue(virtual.maxInFlight > TOMCAT_THREADS, results);
+        //ThreadMXBean counts platform threads only, the pool starts one per request in flight
+        assertTrue(virtual.peakThreads < pool.peakThreads, results);
+        assertTrue(virtual.peakThreads < TOMCAT_THREADS, results);
+        //five times more requests in flight fit into the heap the pool run had, peaks themselves depend on GC timing
+        assertTrue(pool.peakHeap < Runtime.getRuntime().maxMemory(), results);
+        assertTrue(virtual.peakHeap < Runtime.getRuntime().maxMemory(), results);
+    }
+
+    private LoadResult runLoad(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = startServer(virtualThreads)) {
+            DelayingInterceptor interceptor = context.getBean(DelayingInterceptor.class);
+            interceptor.delayMillis = 1000;
+            HttpRequest request = getUser(context);
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            List<MemoryPoolMXBean> heap = new ArrayList<>();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heap.add(pool);
+                }
+            }
+            ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+
+            try {
+                System.gc();
+                heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+                threads.resetPeakThreadCount();
+                for (int i = 0; i < REQUESTS; i++) {
+                    responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+                }
+                for (CompletableFuture<HttpResponse<Void>> response : responses) {
+                    assertEquals(200, response.get(60, TimeUnit.SECONDS).statusCode());
+                }
+            } finally {
+                clientExecutor.shutdownNow();
+            }
+            long peakHeap = 0;
+            for (MemoryPoolMXBean pool : heap) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+            return new LoadResult(interceptor.maxInFlight.get(), threads.getPeakThreadCount(), peakHeap);
+        }
+    }
+
+    private static ConfigurableApplicationContext startServer(boolean virtualThreads) {
+        String database = virtualThreads ? "virtualThreads" : "tomcatPool";
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItServer.class,
+                DelayingInterceptorConfig.class)
+                .profiles(virtualThreads ? new String[]{"virtual-threads"} : new String[0])
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=PostgreSQL",
+                        "--spring.sql.init.platform=h2",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        User user = new User();
+        user.setName("Sam");
+        user.setEmail("sam@gmail.com");
+        context.getBean(UserRepository.class).save(user);
+        return context;
+    }
+
+    private static HttpRequest getUser(ConfigurableApplicationContext context) {
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/1")).build();
+    }
+
+    //Thread.isVirtual() appeared in Java 21, the project is compiled for Java 11
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    private static class LoadResult {
+        private final int maxInFlight;
+        private final int peakThreads;
+        private final long peakHeap;
+
+        LoadResult(int maxInFlight, int peakThreads, long peakHeap) {
+            this.maxInFlight = maxInFlight;
+            this.peakThreads = peakThreads;
+            this.peakHeap = peakHeap;
+        }
+
+        @Override
+        public String toString() {
+            return "запросов одновременно " + maxInFlight + ", потоков платформы " + peakThreads
+                    + ", пик кучи " + peakHeap / (1024 * 1024) + " МБ";
+        }
+    }
+
+    @TestConfiguration
+    static class DelayingInterceptorConfig implements WebMvcConfigurer {
+        @Bean
+        DelayingInterceptor delayingInterceptor() {
+            return new DelayingInterceptor();
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(delayingInterceptor()).addPathPatterns("/users/*");
+        }
+    }
+
+    static class DelayingInterceptor implements HandlerInterceptor {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicReference<Thread> lastThread = new AtomicReference<>();
+        private volatile long delayMillis;
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                throws InterruptedException {
+            lastThread.set(Thread.currentThread());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMillis);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return true;
+        }
+    }
+}
@@ -10,11 +10,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.BookingController;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingBookerDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.enums.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -38,8 +38,8 @@ public class BookingControllerTest {
     private BookingService service;
     private final BookingOutputDto bookingDto = BookingOutputDto.builder()
             .id(1L)
-            .booker(new User())
-            .item(new Item())
+            .booker(BookingBookerDto.builder().id(1L).build())
+            .item(BookingItemDto.builder().id(1L).name("item").build())
             .status(BookingStatus.WAITING)
             .start(LocalDateTime.now())
             .end(LocalDateTime.now())
@@ -7,17 +7,22 @@ import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import ru.practicum.shareit.booking.dto.BookingBookerDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.InvalidDataException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -30,8 +35,8 @@ public class BookingMapperTest {
     private static Booking booking = new Booking();
     private final BookingOutputDto bookingOutputDto = BookingOutputDto.builder()
             .id(1L)
-            .item(item)
-            .booker(user)
+            .item(BookingItemDto.builder().id(1L).name("item2").build())
+            .booker(BookingBookerDto.builder().id(1L).build())
             .status(BookingStatus.WAITING)
             .end(LocalDateTime.now())
             .start(LocalDateTime.now())
@@ -73,6 +78,8 @@ public class BookingMapperTest {
         BookingOutputDto actualDto = mapper.toOutputDtoFromEntity(booking);
 
         assertEquals(bookingOutputDto, actualDto);
+        assertEquals(bookingOutputDto.getBooker(), actualDto.getBooker());
+        assertEquals(bookingOutputDto.getItem(), actualDto.getItem());
     }
 
     @Test
@@ -82,4 +89,22 @@ public class BookingMapperTest {
         actualBooking.setId(booking.getId());
         assertEquals(booking, actualBooking);
     }
+
+    @Test
+    void fromCursor_whenCursorCreatedByToCursor_thenStartAndIdRestored() {
+        BookingOutputDto cursorBooking = BookingOutputDto.builder()
+                .id(42L)
+                .start(LocalDateTime.of(2023, 5, 1, 12, 30))
+                .build();
+
+        BookingCursor actualCursor = mapper.fromCursor(mapper.toCursor(cursorBooking));
+
+        assertEquals(cursorBooking.getStart(), actualCursor.getStart());
+        assertEquals(cursorBooking.getId(), actualCursor.getId());
+    }
+
+    @Test
+    void fromCursor_whenCursorIsMalformed_thenThrowInvalidDataException() {
+        assertThrows(InvalidDataException.class, () -> mapper.fromCursor("not a cursor"));
+    }
 }
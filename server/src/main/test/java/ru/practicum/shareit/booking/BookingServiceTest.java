@@ -8,8 +8,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingBookerDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -18,9 +24,13 @@ import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCache;
+import ru.practicum.shareit.item.summary.service.ItemBookingSummaryService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -28,7 +38,9 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,7 +53,13 @@ public class BookingServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserCache userCache;
+    @Mock
     private BookingMapper mapper;
+    @Mock
+    private ItemCache itemCache;
+    @Mock
+    private ItemBookingSummaryService summaryService;
 
     @InjectMocks
     private BookingServiceImpl service;
@@ -51,8 +69,8 @@ public class BookingServiceTest {
     private static Booking booking = new Booking();
     private final BookingOutputDto bookingOutputDto = BookingOutputDto.builder()
             .id(1L)
-            .item(item)
-            .booker(user)
+            .item(BookingItemDto.builder().id(1L).name("item2").build())
+            .booker(BookingBookerDto.builder().id(1L).build())
             .status(BookingStatus.WAITING)
             .end(LocalDateTime.now())
             .start(LocalDateTime.now())
@@ -88,16 +106,16 @@ public class BookingServiceTest {
 
         BookingStatus bookingStatus = BookingStatus.ALL;
 
-        List<Booking> bookingList = List.of(booking, booking, booking);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
-        when(repository.findByStatusInOrderByStartDesc(List.of(BookingStatus.values()))).thenReturn(bookingList);
+        List<BookingOutputDto> bookingList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(repository.findByBookerIdOrderByStartDesc(anyLong(), any())).thenReturn(bookingList);
         List<BookingOutputDto> expectedList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
 
         List<BookingOutputDto> actualList = service.getAllBookingsByBookerAndState(booking.getBooker().getId(), bookingStatus, 0, 100);
 
-        verify(userRepository).findById(anyLong());
-        verify(repository).findByStatusInOrderByStartDesc(List.of(BookingStatus.values()));
+        verify(userCache).exists(anyLong());
+        verify(repository).findByBookerIdOrderByStartDesc(user.getId(), PageRequest.of(0, 100));
         assertEquals(expectedList, actualList);
     }
 
@@ -106,16 +124,16 @@ public class BookingServiceTest {
 
         BookingStatus bookingStatus = BookingStatus.PAST;
 
-        List<Booking> bookingList = List.of(booking, booking, booking);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
-        when(repository.findByEndBeforeOrderByStartDesc(any())).thenReturn(bookingList);
+        List<BookingOutputDto> bookingList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(repository.findByBookerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any())).thenReturn(bookingList);
         List<BookingOutputDto> expectedList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
 
         List<BookingOutputDto> actualList = service.getAllBookingsByBookerAndState(booking.getBooker().getId(), bookingStatus, 0, 100);
 
-        verify(userRepository).findById(anyLong());
-        verify(repository).findByEndBeforeOrderByStartDesc(any());
+        verify(userCache).exists(anyLong());
+        verify(repository).findByBookerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any());
         assertEquals(expectedList, actualList);
     }
 
@@ -124,16 +142,16 @@ public class BookingServiceTest {
 
         BookingStatus bookingStatus = BookingStatus.CURRENT;
 
-        List<Booking> bookingList = List.of(booking, booking, booking);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
-        when(repository.findByStartBeforeAndEndAfterOrderByStartDesc(any(), any())).thenReturn(bookingList);
+        List<BookingOutputDto> bookingList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(repository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(anyLong(), any(), any(), any())).thenReturn(bookingList);
         List<BookingOutputDto> expectedList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
 
         List<BookingOutputDto> actualList = service.getAllBookingsByBookerAndState(booking.getBooker().getId(), bookingStatus, 0, 100);
 
-        verify(userRepository).findById(anyLong());
-        verify(repository).findByStartBeforeAndEndAfterOrderByStartDesc(any(), any());
+        verify(userCache).exists(anyLong());
+        verify(repository).findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(anyLong(), any(), any(), any());
         assertEquals(expectedList, actualList);
     }
 
@@ -142,16 +160,16 @@ public class BookingServiceTest {
 
         BookingStatus bookingStatus = BookingStatus.FUTURE;
 
-        List<Booking> bookingList = List.of(booking, booking, booking);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
-        when(repository.findByStartAfterOrderByStartDesc(any())).thenReturn(bookingList);
+        List<BookingOutputDto> bookingList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(repository.findByBookerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any())).thenReturn(bookingList);
         List<BookingOutputDto> expectedList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
 
         List<BookingOutputDto> actualList = service.getAllBookingsByBookerAndState(booking.getBooker().getId(), bookingStatus, 0, 100);
 
-        verify(userRepository).findById(anyLong());
-        verify(repository).findByStartAfterOrderByStartDesc(any());
+        verify(userCache).exists(anyLong());
+        verify(repository).findByBookerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any());
         assertEquals(expectedList, actualList);
     }
 
@@ -160,38 +178,39 @@ public class BookingServiceTest {
 
         BookingStatus bookingStatus = BookingStatus.CANCELED;
 
-        List<Booking> bookingList = List.of(booking, booking, booking);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
-        when(repository.findByStatusInOrderByStartDesc(List.of(bookingStatus))).thenReturn(bookingList);
+        List<BookingOutputDto> bookingList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(repository.findByBookerIdAndStatusOrderByStartDesc(anyLong(), eq(bookingStatus), any())).thenReturn(bookingList);
         List<BookingOutputDto> expectedList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
 
         List<BookingOutputDto> actualList = service.getAllBookingsByBookerAndState(booking.getBooker().getId(), bookingStatus, 0, 100);
 
-        verify(userRepository).findById(anyLong());
-        verify(repository).findByStatusInOrderByStartDesc(List.of(bookingStatus));
+        verify(userCache).exists(anyLong());
+        verify(repository).findByBookerIdAndStatusOrderByStartDesc(anyLong(), eq(bookingStatus), any());
         assertEquals(expectedList, actualList);
     }
 
     @Test
     void getAllBookingsByBookerAndState_whenStateIsUnsupportedStatus_thenBookingListReturned() {
         BookingStatus bookingStatus = BookingStatus.UNSUPPORTED_STATUS;
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
 
         UnsupportedStatusException exception = assertThrows(UnsupportedStatusException.class,
                 () -> service.getAllBookingsByBookerAndState(booking.getBooker().getId(), bookingStatus, 0, 100));
-        verify(userRepository).findById(anyLong());
+        verify(userCache).exists(anyLong());
         assertEquals("Unknown state: UNSUPPORTED_STATUS", exception.getMessage());
     }
 
     @Test
     void getAllBookingsByBookerAndState_whenUserIsEmpty_thenBookingListReturned() {
         BookingStatus bookingStatus = BookingStatus.UNSUPPORTED_STATUS;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.exists(anyLong())).thenReturn(false);
 
         OwnerNotFoundException exception = assertThrows(OwnerNotFoundException.class,
                 () -> service.getAllBookingsByBookerAndState(booking.getBooker().getId(), bookingStatus, 0, 100));
-        verify(userRepository).findById(anyLong());
+        verify(userCache).exists(anyLong());
         assertEquals("Пользователь не найден", exception.getMessage());
     }
 
@@ -200,42 +219,120 @@ public class BookingServiceTest {
 
         BookingStatus bookingStatus = BookingStatus.ALL;
 
-        List<Booking> bookingList = List.of(booking, booking, booking);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
-        when(repository.findByStatusInOrderByStartDesc(List.of(BookingStatus.values()))).thenReturn(bookingList);
+        List<BookingOutputDto> bookingList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(repository.findByItemOwnerIdOrderByStartDesc(anyLong(), any())).thenReturn(bookingList);
         List<BookingOutputDto> expectedList = List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto);
 
         List<BookingOutputDto> actualList = service.getAllBookingsByOwnerAndState(booking.getBooker().getId(), bookingStatus, 0, 100);
 
-        verify(userRepository).findById(anyLong());
-        verify(repository).findByStatusInOrderByStartDesc(List.of(BookingStatus.values()));
+        verify(userCache).exists(anyLong());
+        verify(repository).findByItemOwnerIdOrderByStartDesc(user.getId(), PageRequest.of(0, 100));
         assertEquals(expectedList, actualList);
     }
 
+    @Test
+    void getAllBookingsByOwnerAndState_whenStateIsWaiting_thenBookingListReturned() {
+
+        BookingStatus bookingStatus = BookingStatus.WAITING;
+
+        List<BookingOutputDto> bookingList = List.of(bookingOutputDto, bookingOutputDto);
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(repository.findByItemOwnerIdAndStatusOrderByStartDesc(anyLong(), eq(bookingStatus), any())).thenReturn(bookingList);
+        List<BookingOutputDto> expectedList = List.of(bookingOutputDto, bookingOutputDto);
+
+        List<BookingOutputDto> actualList = service.getAllBookingsByOwnerAndState(user.getId(), bookingStatus, 1, 2);
+
+        verify(repository).findByItemOwnerIdAndStatusOrderByStartDesc(user.getId(), bookingStatus, PageRequest.of(1, 2));
+        assertEquals(expectedList, actualList);
+    }
+
+    @Test
+    void getBookingsPageByBookerAndState_whenMoreBookingsThanSize_thenNextCursorReturned() {
+        BookingStatus bookingStatus = BookingStatus.ALL;
+
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(mapper.toCursor(any())).thenReturn("cursor");
+        when(repository.findByBookerAfterCursor(anyLong(), anyList(), any(), any(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(bookingOutputDto, bookingOutputDto, bookingOutputDto));
+
+        BookingPageDto actualPage = service.getBookingsPageByBookerAndState(user.getId(), bookingStatus, "", 2);
+
+        verify(repository).findByBookerAfterCursor(eq(user.getId()), anyList(), any(), any(), any(), any(),
+                eq(Long.MAX_VALUE), eq(PageRequest.of(0, 3)));
+        assertEquals(2, actualPage.getBookings().size());
+        assertEquals("cursor", actualPage.getNextCursor());
+    }
+
+    @Test
+    void getBookingsPageByBookerAndState_whenCurrentState_thenStartBoundFoldedIntoCursor() {
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(repository.findByBookerAfterCursor(anyLong(), anyList(), any(), any(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(bookingOutputDto));
+
+        service.getBookingsPageByBookerAndState(user.getId(), BookingStatus.CURRENT, "", 2);
+
+        verify(repository).findByBookerAfterCursor(eq(user.getId()), anyList(), any(), any(), any(),
+                argThat(start -> !start.isAfter(LocalDateTime.now())), eq(Long.MIN_VALUE), eq(PageRequest.of(0, 3)));
+    }
+
+    @Test
+    void getBookingsPageByOwnerAndState_whenLastPage_thenNextCursorIsNull() {
+        BookingStatus bookingStatus = BookingStatus.FUTURE;
+
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(mapper.fromCursor("cursor")).thenReturn(BookingCursor.builder().start(LocalDateTime.now()).id(5L).build());
+        when(repository.findByItemOwnerAfterCursor(anyLong(), anyList(), any(), any(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(bookingOutputDto));
+
+        BookingPageDto actualPage = service.getBookingsPageByOwnerAndState(user.getId(), bookingStatus, "cursor", 2);
+
+        verify(repository).findByItemOwnerAfterCursor(eq(user.getId()), anyList(), any(), any(), any(), any(),
+                eq(5L), eq(PageRequest.of(0, 3)));
+        assertEquals(1, actualPage.getBookings().size());
+        assertEquals(null, actualPage.getNextCursor());
+    }
+
+    @Test
+    void getBookingsPageByOwnerAndState_whenSizeAboveCap_thenPageClamped() {
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(repository.findByItemOwnerAfterCursor(anyLong(), anyList(), any(), any(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(bookingOutputDto));
+
+        service.getBookingsPageByOwnerAndState(user.getId(), BookingStatus.ALL, "", Integer.MAX_VALUE);
+
+        verify(repository).findByItemOwnerAfterCursor(eq(user.getId()), anyList(), any(), any(), any(), any(),
+                eq(Long.MAX_VALUE), eq(PageRequest.of(0, 1001)));
+    }
+
     @Test
     void getBookingById_whenInvoked_thenBookingReturned() {
-        when(repository.getReferenceById(anyLong())).thenReturn(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.of(booking));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
         BookingOutputDto expectedBooking = bookingOutputDto;
 
         BookingOutputDto actualBooking = service.getBookingById(item.getOwner().getId(), item.getId());
 
-        verify(repository).getReferenceById(item.getId());
+        verify(repository).findWithItemById(item.getId());
         assertEquals(expectedBooking, actualBooking);
     }
 
     @Test
     void getBookingById_whenUserIsNotValid_thenBookingReturned() {
-        when(repository.getReferenceById(anyLong())).thenReturn(booking);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.of(booking));
+        when(userCache.exists(anyLong())).thenReturn(false);
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
 
         OwnerNotFoundException exception = assertThrows(OwnerNotFoundException.class,
                 () -> service.getBookingById(item.getOwner().getId(), item.getId()));
 
-        verify(repository).getReferenceById(item.getId());
+        verify(repository).findWithItemById(item.getId());
         verify(mapper, never()).toOutputDtoFromEntity(any());
         assertEquals("Пользователь не найден или не является автором бронирования или владельцем вещи", exception.getMessage());
     }
@@ -244,25 +341,28 @@ public class BookingServiceTest {
     void approveBooking_whenApprove_thenBookingApproved() {
         Booking notApprovedBooking = booking;
         notApprovedBooking.setStatus(BookingStatus.WAITING);
-        when(repository.getById(anyLong())).thenReturn(notApprovedBooking);
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.of(notApprovedBooking));
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
-        when(repository.save(any())).thenReturn(booking);
+        when(repository.updateStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
 
         BookingOutputDto actualBooking = service.approveBooking(booking.getBooker().getId(), true, booking.getId());
 
-        verify(repository).save(any());
+        verify(repository).updateStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.APPROVED);
+        verify(repository, never()).save(any());
+        verify(summaryService).refresh(item.getId());
+        verify(itemCache).evict(item.getId());
         assertEquals(actualBooking.getStatus(), BookingStatus.APPROVED);
     }
 
     @Test
     void approveBooking_whenReject_thenBookingRejected() {
-        when(repository.getById(anyLong())).thenReturn(booking);
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.of(booking));
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
-        when(repository.save(any())).thenReturn(booking);
+        when(repository.updateStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(1);
 
         BookingOutputDto actualBooking = service.approveBooking(booking.getBooker().getId(), false, booking.getId());
 
-        verify(repository).save(any());
+        verify(repository).updateStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.REJECTED);
         assertEquals(actualBooking.getStatus(), BookingStatus.REJECTED);
 
     }
@@ -271,30 +371,86 @@ public class BookingServiceTest {
     void approveBooking_whenIsAlreadyApproved_thenThrowUnsupportedStatusException() {
         Booking approvedBooking = booking;
         approvedBooking.setStatus(BookingStatus.APPROVED);
-        when(repository.getById(anyLong())).thenReturn(approvedBooking);
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.of(approvedBooking));
 
         UnsupportedStatusException exception = assertThrows(UnsupportedStatusException.class,
                 () -> service.approveBooking(approvedBooking.getBooker().getId(), true, approvedBooking.getId()));
 
-        verify(repository, never()).save(any());
+        verify(repository, never()).updateStatus(anyLong(), any(), any());
         assertEquals("Одобрить дважды нельзя", exception.getMessage());
     }
 
+    @Test
+    void approveBooking_whenOverlapsApprovedBooking_thenThrowBookingConflictException() {
+        Booking notApprovedBooking = booking;
+        notApprovedBooking.setStatus(BookingStatus.WAITING);
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.of(notApprovedBooking));
+        when(repository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(eq(item.getId()), eq(BookingStatus.APPROVED),
+                any(), any())).thenReturn(true);
+
+        BookingConflictException exception = assertThrows(BookingConflictException.class,
+                () -> service.approveBooking(booking.getBooker().getId(), true, booking.getId()));
+
+        verify(repository, never()).updateStatus(anyLong(), any(), any());
+        assertEquals("item уже забронирован на это время", exception.getMessage());
+    }
+
+    @Test
+    void approveBooking_whenConstraintRejectsConcurrentApproval_thenThrowBookingConflictException() {
+        Booking notApprovedBooking = booking;
+        notApprovedBooking.setStatus(BookingStatus.WAITING);
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.of(notApprovedBooking));
+        when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
+        when(repository.updateStatus(anyLong(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("EXCL_BOOKING_APPROVED_OVERLAP"));
+
+        BookingConflictException exception = assertThrows(BookingConflictException.class,
+                () -> service.approveBooking(booking.getBooker().getId(), true, booking.getId()));
+
+        assertEquals("item уже забронирован на это время", exception.getMessage());
+    }
+
+    @Test
+    void approveBooking_whenAlreadyDecidedConcurrently_thenThrowBookingConflictException() {
+        Booking notApprovedBooking = booking;
+        notApprovedBooking.setStatus(BookingStatus.WAITING);
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.of(notApprovedBooking));
+        when(repository.updateStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(0);
+
+        BookingConflictException exception = assertThrows(BookingConflictException.class,
+                () -> service.approveBooking(booking.getBooker().getId(), false, booking.getId()));
+
+        verify(mapper, never()).toOutputDtoFromEntity(any());
+        assertEquals("Бронирование уже рассмотрено", exception.getMessage());
+    }
+
     @Test
     void approveBooking_whenUserIsNotOwner_thenThrowOwnerNotFoundException() {
-        when(repository.getById(anyLong())).thenReturn(booking);
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.of(booking));
 
         OwnerNotFoundException exception = assertThrows(OwnerNotFoundException.class,
                 () -> service.approveBooking(100L, true, booking.getId()));
 
-        verify(repository, never()).save(any());
+        verify(repository, never()).updateStatus(anyLong(), any(), any());
         assertEquals("Пользователь не владелец вещи", exception.getMessage());
     }
 
+    @Test
+    void getBookingById_whenBookingNotFound_thenThrowEntityNotFoundException() {
+        when(repository.findWithItemById(anyLong())).thenReturn(Optional.empty());
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> service.getBookingById(user.getId(), 99L));
+
+        assertEquals("Бронирование не найдено", exception.getMessage());
+        verify(userCache, never()).exists(anyLong());
+    }
+
     @Test
     void addBooking_whenInvoked_thenBookingSaved() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
         when(mapper.toEntityFromInputDto(any(), any(), any(), any())).thenReturn(booking);
         when(repository.save(any())).thenReturn(booking);
@@ -307,13 +463,16 @@ public class BookingServiceTest {
 
         BookingOutputDto actualBooking = service.addBooking(100L, bookingInputDto);
         verify(repository).save(any());
+        verify(summaryService).refresh(item.getId());
+        verify(itemCache).evict(item.getId());
         assertEquals(expectedBooking, actualBooking);
     }
 
     @Test
     void addBooking_whenItemNotFound_thenThrowItemNotFoundException() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
         when(mapper.toEntityFromInputDto(any(), any(), any(), any())).thenReturn(booking);
         when(repository.save(any())).thenReturn(booking);
@@ -332,7 +491,7 @@ public class BookingServiceTest {
     @Test
     void addBooking_whenUserNotFound_thenThrowOwnerNotFoundException() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.exists(anyLong())).thenReturn(false);
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
         when(mapper.toEntityFromInputDto(any(), any(), any(), any())).thenReturn(booking);
         when(repository.save(any())).thenReturn(booking);
@@ -354,7 +513,8 @@ public class BookingServiceTest {
         notAvailableItem.setOwner(user);
         notAvailableItem.setAvailable(false);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(notAvailableItem));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
         when(mapper.toEntityFromInputDto(any(), any(), any(), any())).thenReturn(booking);
         when(repository.save(any())).thenReturn(booking);
@@ -373,7 +533,8 @@ public class BookingServiceTest {
     @Test
     void addBooking_whenOwnerIsBookingHisOwnItem_thenThrowOwnerNotFoundException() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
         when(mapper.toEntityFromInputDto(any(), any(), any(), any())).thenReturn(booking);
         when(repository.save(any())).thenReturn(booking);
@@ -392,7 +553,8 @@ public class BookingServiceTest {
     @Test
     void addBooking_whenDurationIsInvalid_thenThrowInvalidBookingDurationException() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
         when(mapper.toOutputDtoFromEntity(any())).thenReturn(bookingOutputDto);
         when(mapper.toEntityFromInputDto(any(), any(), any(), any())).thenReturn(booking);
         when(repository.save(any())).thenReturn(booking);
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemCache;
+import ru.practicum.shareit.item.summary.model.ItemBookingSummary;
+import ru.practicum.shareit.item.summary.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.summary.service.ItemBookingSummaryServiceImpl;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ItemBookingSummaryServiceTest {
+    @Mock
+    private ItemBookingSummaryRepository repository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ItemCache itemCache;
+
+    @InjectMocks
+    private ItemBookingSummaryServiceImpl service;
+
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void createData() {
+        booker = new User();
+        booker.setId(2L);
+
+        item = new Item();
+        item.setId(1L);
+    }
+
+    @Test
+    void getSummaries_whenSummaryIsValid_thenBookingsNotQueried() {
+        ItemBookingSummary summary = summary(LocalDateTime.now().plusDays(1));
+        summary.setNextBookingId(5L);
+        when(repository.findAllById(List.of(item.getId()))).thenReturn(List.of(summary));
+
+        Map<Long, ItemBookingSummary> actualSummaries = service.getSummaries(List.of(item.getId()));
+
+        assertEquals(5L, actualSummaries.get(item.getId()).getNextBookingId());
+        verifyNoInteractions(bookingRepository);
+        verify(repository, never()).saveAll(any());
+    }
+
+    @Test
+    void getSummaries_whenNextBookingStarted_thenSummaryRolledForward() {
+        LocalDateTime nextStart = LocalDateTime.now().plusDays(3);
+        when(repository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of(summary(LocalDateTime.now().minusMinutes(1))));
+        when(bookingRepository.findLastBookingsByItemIds(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(booking(1L, BookingStatus.APPROVED, LocalDateTime.now().minusMinutes(1))));
+        when(bookingRepository.findNextBookingsByItemIds(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(booking(2L, BookingStatus.WAITING, nextStart)));
+
+        ItemBookingSummary actualSummary = service.getSummary(item.getId());
+
+        assertEquals(1L, actualSummary.getLastBookingId());
+        assertEquals(booker.getId(), actualSummary.getLastBookerId());
+        assertEquals(BookingStatus.APPROVED, actualSummary.getLastStatus());
+        assertEquals(2L, actualSummary.getNextBookingId());
+        assertEquals(nextStart, actualSummary.getValidUntil());
+        verify(repository).saveAll(List.of(actualSummary));
+    }
+
+    @Test
+    void refresh_whenItemHasNoBookings_thenSummaryValidUntilBookingAdded() {
+        when(repository.findByItemIdInOrderByItemId(List.of(item.getId()))).thenReturn(List.of());
+
+        ItemBookingSummary actualSummary = service.refresh(item.getId());
+
+        assertEquals(item.getId(), actualSummary.getItemId());
+        assertNull(actualSummary.getLastBookingId());
+        assertNull(actualSummary.getNextBookingId());
+        assertEquals(LocalDateTime.of(9999, 12, 31, 23, 59), actualSummary.getValidUntil());
+        verify(repository).saveAll(List.of(actualSummary));
+    }
+
+    @Test
+    void refresh_whenSummaryExists_thenRowLockedBeforeBookingsRead() {
+        ItemBookingSummary summary = summary(LocalDateTime.now().plusDays(1));
+        when(repository.findByItemIdInOrderByItemId(List.of(item.getId()))).thenReturn(List.of(summary));
+        when(bookingRepository.findNextBookingsByItemIds(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(booking(4L, BookingStatus.WAITING, LocalDateTime.now().plusHours(1))));
+
+        ItemBookingSummary actualSummary = service.refresh(item.getId());
+
+        assertSame(summary, actualSummary);
+        assertEquals(4L, actualSummary.getNextBookingId());
+        InOrder inOrder = inOrder(repository, bookingRepository);
+        inOrder.verify(repository).findByItemIdInOrderByItemId(List.of(item.getId()));
+        inOrder.verify(bookingRepository).findNextBookingsByItemIds(eq(List.of(item.getId())), any());
+        inOrder.verify(repository).saveAll(List.of(summary));
+    }
+
+    @Test
+    void rollForward_whenSummariesExpired_thenUpdatedAndCacheEvicted() {
+        ItemBookingSummary summary = summary(LocalDateTime.now().minusHours(1));
+        when(repository.findByValidUntilLessThanEqualOrderByValidUntil(any(), eq(PageRequest.of(0, 500))))
+                .thenReturn(List.of(summary));
+        when(bookingRepository.findLastBookingsByItemIds(anyList(), any()))
+                .thenReturn(List.of(booking(3L, BookingStatus.WAITING, LocalDateTime.now().minusHours(1))));
+
+        int actualCount = service.rollForward();
+
+        assertEquals(1, actualCount);
+        assertEquals(3L, summary.getLastBookingId());
+        verify(repository).saveAll(List.of(summary));
+        verify(itemCache).evict(item.getId());
+    }
+
+    private ItemBookingSummary summary(LocalDateTime validUntil) {
+        ItemBookingSummary summary = new ItemBookingSummary();
+        summary.setItemId(item.getId());
+        summary.setValidUntil(validUntil);
+        return summary;
+    }
+
+    private Booking booking(long id, BookingStatus status, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(status);
+        booking.setStart(start);
+        return booking;
+    }
+}
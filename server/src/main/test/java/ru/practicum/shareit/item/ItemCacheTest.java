@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemCache;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ItemCacheTest {
+    private final ItemCache itemCache = new ItemCache(new CaffeineCacheManager(ItemCache.ITEMS));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @SneakyThrows
+    void get_whenEvictedDuringLoad_thenLoadedEntryNotKept() {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = new Thread(() -> itemCache.get(1L, 1L, () -> {
+            loading.countDown();
+            awaitQuietly(release);
+            return entry();
+        }));
+        reader.start();
+        loading.await();
+        Thread writer = new Thread(() -> itemCache.evict(1L));
+        writer.start();
+        while (writer.getState() == Thread.State.RUNNABLE || writer.getState() == Thread.State.NEW) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        reader.join();
+        writer.join();
+
+        itemCache.get(1L, 1L, this::entry);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_whenLoaderFails_thenOriginalExceptionThrown() {
+        assertThrows(EntityNotFoundException.class, () -> itemCache.get(1L, 1L, () -> {
+            throw new EntityNotFoundException();
+        }));
+    }
+
+    private ItemCache.Entry entry() {
+        loads.incrementAndGet();
+        return new ItemCache.Entry(1L, ItemDto.builder()
+                .id(1L)
+                .comments(new ArrayList<>())
+                .build());
+    }
+
+    @SneakyThrows
+    private static void awaitQuietly(CountDownLatch latch) {
+        latch.await();
+    }
+}
@@ -6,26 +6,39 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.config.RequestLogFilter;
+import ru.practicum.shareit.exception.OwnerNotFoundException;
 import ru.practicum.shareit.item.ItemController;
 import ru.practicum.shareit.item.comments.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.stream.NdjsonWriter;
+import ru.practicum.shareit.stream.StreamChunks;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import(NdjsonWriter.class)
 public class ItemControllerTest {
     @Autowired
     private ObjectMapper mapper;
@@ -143,14 +156,14 @@ public class ItemControllerTest {
 
     @Test
     @SneakyThrows
-    void searchItem_whenInvoked_thenReturnedSearchResult() {
+    void searchItem_whenNoPagingParameters_thenMatchesUpToCapRequested() {
         List<ItemDto> expectedItemDtoList = List.of(itemDto, itemDto, itemDto);
-        when(service.searchItem(anyString()))
+        when(service.searchItem(anyString(), anyInt(), anyInt()))
                 .thenReturn(expectedItemDtoList);
 
         String response = mvc.perform(get("/items/search")
                         .characterEncoding(StandardCharsets.UTF_8)
-                        .param("text", anyString())
+                        .param("text", "item")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -158,7 +171,7 @@ public class ItemControllerTest {
                 .getResponse()
                 .getContentAsString();
 
-        verify(service).searchItem(anyString());
+        verify(service).searchItem("item", 0, 1000);
         assertEquals(mapper.writeValueAsString(expectedItemDtoList), response);
     }
 
@@ -182,4 +195,48 @@ public class ItemControllerTest {
         verify(service).addComment(anyLong(), anyLong(), any());
         assertEquals(mapper.writeValueAsString(commentDto), response);
     }
+
+    @Test
+    @SneakyThrows
+    void streamAllItemsByOwner_whenMoreItemsThanChunk_thenOneItemPerLine() {
+        int items = StreamChunks.CHUNK_SIZE + 1;
+        doAnswer(invocation -> {
+            Consumer<ItemDto> consumer = invocation.getArgument(1);
+            for (int i = 0; i < items; i++) {
+                consumer.accept(itemDto);
+            }
+            return null;
+        }).when(service).streamAllItemsByOwner(eq(1L), any());
+
+        MvcResult result = mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().attribute(RequestLogFilter.COUNT_ATTRIBUTE, (long) items))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals((mapper.writeValueAsString(itemDto) + "\n").repeat(items), response);
+    }
+
+    @Test
+    @SneakyThrows
+    void streamAllItemsByOwner_whenOwnerNotFound_thenNotFound() {
+        doThrow(new OwnerNotFoundException("Владелец предмета не найден"))
+                .when(service).streamAllItemsByOwner(anyLong(), any());
+
+        MvcResult result = mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 999L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Владелец предмета не найден"));
+    }
 }
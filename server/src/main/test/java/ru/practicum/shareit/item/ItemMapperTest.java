@@ -7,16 +7,15 @@ import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoForRequest;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.summary.model.ItemBookingSummary;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
-import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -43,7 +42,7 @@ public class ItemMapperTest {
             .available(true)
             .requestId(2L)
             .build();
-    private static Booking booking;
+    private static ItemBookingSummary summary;
 
     @BeforeAll
     static void createData() {
@@ -62,21 +61,25 @@ public class ItemMapperTest {
         itemRequest.setId(1L);
         item.setRequest(itemRequest);
 
-        long bookingId = 1L;
-        booking = new Booking();
-        booking.setBooker(user);
-        booking.setItem(item);
-        booking.setStatus(BookingStatus.WAITING);
-        booking.setStart(LocalDateTime.MIN);
-        booking.setId(bookingId);
+        summary = new ItemBookingSummary();
+        summary.setItemId(itemId);
+        summary.setLastBookingId(1L);
+        summary.setLastBookerId(userId);
+        summary.setLastStatus(BookingStatus.REJECTED);
+        summary.setNextBookingId(2L);
+        summary.setNextBookerId(userId);
+        summary.setNextStatus(BookingStatus.WAITING);
     }
 
     @Test
     void toDto_whenInvoked_thenItemCastedToItemDto() {
 
-        ItemDto actualDto = mapper.toDto(item, user.getId(), booking, booking, null);
+        ItemDto actualDto = mapper.toDto(item, user.getId(), summary, null);
 
         assertEquals(itemDto, actualDto);
+        assertNull(actualDto.getLastBooking());
+        assertEquals(2L, actualDto.getNextBooking().getId());
+        assertEquals(BookingStatus.WAITING, actualDto.getNextBooking().getStatus());
     }
 
     @Test
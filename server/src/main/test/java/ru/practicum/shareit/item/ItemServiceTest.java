@@ -5,13 +5,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.ItemResponseBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.exception.OwnerAccessException;
+import ru.practicum.shareit.exception.UnavailableItemException;
 import ru.practicum.shareit.item.comments.dto.CommentDto;
 import ru.practicum.shareit.item.comments.mapper.CommentMapper;
 import ru.practicum.shareit.item.comments.model.Comment;
@@ -20,17 +25,21 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCache;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.summary.service.ItemBookingSummaryService;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -43,6 +52,8 @@ public class ItemServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserCache userCache;
+    @Mock
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
@@ -52,6 +63,10 @@ public class ItemServiceTest {
     private ItemMapper mapper;
     @Mock
     private CommentMapper commentMapper;
+    @Mock
+    private ItemBookingSummaryService summaryService;
+    @Spy
+    private ItemCache itemCache = new ItemCache(new ConcurrentMapCacheManager(ItemCache.ITEMS));
 
     @InjectMocks
     private ItemServiceImpl service;
@@ -87,78 +102,132 @@ public class ItemServiceTest {
     void getAllItemsByOwner_whenInvoked_thenItemListReturned() {
 
         List<Item> itemList = List.of(item, item, item);
-        when(repository.findAll()).thenReturn(itemList);
-        when(mapper.toDto(any(), anyLong(), any(), any(), anyList())).thenReturn(itemDto);
+        when(repository.findAllByOwnerId(user.getId())).thenReturn(itemList);
+        when(mapper.toDto(any(), anyLong(), any(), anyList())).thenReturn(itemDto);
         List<ItemDto> expectedList = List.of(itemDto, itemDto, itemDto);
 
         List<ItemDto> actualList = service.getAllItemsByOwner(user.getId());
 
-        verify(repository).findAll();
+        verify(repository).findAllByOwnerId(user.getId());
+        verify(summaryService).getSummaries(List.of(item.getId(), item.getId(), item.getId()));
+        verify(commentRepository).findByItemIdIn(anyList());
+        verify(commentRepository, never()).findByItemId(anyLong());
         assertEquals(expectedList, actualList);
     }
 
     @Test
     void getItem_whenInvoked_thenItemReturned() {
         when(repository.getById(item.getId())).thenReturn(item);
-        when(mapper.toDto(any(), anyLong(), any(), any(), anyList())).thenReturn(itemDto);
+        when(mapper.toDto(any(), anyLong(), any(), anyList())).thenReturn(itemDto);
         ItemDto expectedItem = itemDto;
 
         ItemDto actualItem = service.getItem(user.getId(), item.getId());
 
         verify(repository).getById(item.getId());
+        verify(summaryService).getSummary(item.getId());
+        verifyNoInteractions(bookingRepository);
         assertEquals(expectedItem, actualItem);
     }
 
+    @Test
+    void getItem_whenInvokedTwice_thenLoadedOnce() {
+        when(repository.getById(item.getId())).thenReturn(item);
+        when(mapper.toDto(any(), anyLong(), any(), anyList())).thenReturn(itemDto);
+
+        service.getItem(user.getId(), item.getId());
+        ItemDto actualItem = service.getItem(user.getId(), item.getId());
+
+        verify(repository, times(1)).getById(item.getId());
+        verify(commentRepository, times(1)).findByItemId(item.getId());
+        assertEquals(itemDto, actualItem);
+    }
+
+    @Test
+    void getItem_whenCachedForOwnerAndViewerIsNotOwner_thenBookingsHidden() {
+        ItemDto ownerView = ItemDto.builder()
+                .id(item.getId())
+                .name("item2")
+                .lastBooking(ItemResponseBookingDto.builder().id(1L).bookerId(2L).build())
+                .nextBooking(ItemResponseBookingDto.builder().id(2L).bookerId(2L).build())
+                .build();
+        when(repository.getById(item.getId())).thenReturn(item);
+        when(mapper.toDto(any(), eq(user.getId()), any(), anyList())).thenReturn(ownerView);
+
+        ItemDto ownerItem = service.getItem(user.getId(), item.getId());
+        ItemDto otherItem = service.getItem(100L, item.getId());
+
+        verify(repository, times(1)).getById(item.getId());
+        assertNotNull(ownerItem.getLastBooking());
+        assertNotNull(ownerItem.getNextBooking());
+        assertNull(otherItem.getLastBooking());
+        assertNull(otherItem.getNextBooking());
+        assertEquals("item2", otherItem.getName());
+    }
+
     @Test
     void searchItem_whenInvoked_thenResultReturned() {
         List<Item> list = List.of(item, item, item);
-        when(repository.findAll()).thenReturn(list);
-        when(mapper.toDto(any(), anyLong(), any(), any(), anyList())).thenReturn(itemDto);
+        when(repository.searchAvailable(anyString(), any())).thenReturn(list);
+        when(mapper.toDto(any(), isNull(), isNull(), anyList())).thenReturn(itemDto);
 
         List<ItemDto> expectedList = List.of(itemDto, itemDto, itemDto);
-        List<ItemDto> actualList = service.searchItem("item");
+        List<ItemDto> actualList = service.searchItem("Item", 0, 10);
 
-        verify(repository).findAll();
+        verify(repository).searchAvailable("%item%", PageRequest.of(0, 10));
+        verify(commentRepository).findByItemIdIn(anyList());
+        verify(summaryService, never()).getSummaries(any());
         assertEquals(expectedList, actualList);
     }
 
+    @Test
+    void searchItem_whenTextHasLikeWildcards_thenWildcardsEscaped() {
+        service.searchItem("50%_off!", 1, 5);
+
+        verify(repository).searchAvailable("%50!%!_off!!%", PageRequest.of(1, 5));
+    }
+
     @Test
     void searchItem_whenTextIsBlank_thenEmptyListReturned() {
-        List<ItemDto> actualListBlank = service.searchItem("");
+        List<ItemDto> actualListBlank = service.searchItem("", 0, 10);
 
-        verify(repository, never()).findAll();
+        verify(repository, never()).searchAvailable(anyString(), any());
         assertEquals(new ArrayList<>(), actualListBlank);
     }
 
     @Test
     void addItem_whenInvoked_thenItemSaved() {
         when(repository.save(item)).thenReturn(item);
-        when(mapper.toDto(any(), anyLong(), any(), any(), anyList())).thenReturn(itemDto);
+        when(mapper.toDto(any(), anyLong(), any(), anyList())).thenReturn(itemDto);
         when(mapper.toEntity(any(), any(), any())).thenReturn(item);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
         ItemDto expectedItem = itemDto;
 
         ItemDto actualItem = service.addItem(itemDto, user.getId());
 
         verify(repository).save(item);
+        verify(summaryService).refresh(item.getId());
         assertEquals(expectedItem, actualItem);
     }
 
     @Test
     void deleteItem_whenInvoked_thenItemDeleted() {
         when(repository.getById(item.getId())).thenReturn(item);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
 
         service.deleteItem(item.getId(), user.getId());
 
         verify(repository).deleteById(item.getId());
+        verify(itemCache).evict(item.getId());
     }
 
     @Test
     void deleteItem_whenUserIsNotOwner_thenThrowOwnerAccessException() {
         long wrongOwnerId = 2L;
         when(repository.getById(item.getId())).thenReturn(item);
-        when(userRepository.findById(wrongOwnerId)).thenReturn(Optional.of(user));
+        when(userCache.exists(wrongOwnerId)).thenReturn(true);
+        when(userRepository.getById(wrongOwnerId)).thenReturn(user);
 
         OwnerAccessException exception = assertThrows(OwnerAccessException.class, () -> service.deleteItem(item.getId(), wrongOwnerId));
         verify(repository, never()).deleteById(item.getId());
@@ -167,13 +236,15 @@ public class ItemServiceTest {
     @Test
     void patchItem_whenInvoked_thenItemPatched() {
         when(repository.getById(item.getId())).thenReturn(item);
-        when(mapper.toDto(any(), anyLong(), any(), any(), anyList())).thenReturn(itemDto);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(mapper.toDto(any(), anyLong(), any(), anyList())).thenReturn(itemDto);
+        when(userCache.exists(user.getId())).thenReturn(true);
+        when(userRepository.getById(user.getId())).thenReturn(user);
 
         ItemDto actualItem = service.patchItem(item.getId(), itemDto, user.getId());
 
         verify(repository, times(2)).getById(user.getId());
         verify(repository).save(item);
+        verify(itemCache).evict(item.getId());
         assertEquals(itemDto, actualItem);
     }
 
@@ -181,7 +252,8 @@ public class ItemServiceTest {
     void patchItem_whenUserIsNotOwner_thenThrowOwnerAccessException() {
         long wrongOwnerId = 2L;
         when(repository.getById(item.getId())).thenReturn(item);
-        when(userRepository.findById(wrongOwnerId)).thenReturn(Optional.of(user));
+        when(userCache.exists(wrongOwnerId)).thenReturn(true);
+        when(userRepository.getById(wrongOwnerId)).thenReturn(user);
 
         OwnerAccessException exception = assertThrows(OwnerAccessException.class, () -> service.patchItem(item.getId(), itemDto, wrongOwnerId));
         verify(repository).getById(user.getId());
@@ -214,13 +286,14 @@ public class ItemServiceTest {
         booking.setId(bookingId);
 
         when(repository.save(item)).thenReturn(item);
-        when(mapper.toDto(any(), anyLong(), any(), any(), anyList())).thenReturn(itemDto);
+        when(mapper.toDto(any(), anyLong(), any(), anyList())).thenReturn(itemDto);
         when(mapper.toEntity(any(), any(), any())).thenReturn(item);
         when(commentMapper.toDto(any())).thenReturn(commentDto);
         when(commentMapper.toEntity(any(), any(), any())).thenReturn(comment);
         when(userRepository.getById(user.getId())).thenReturn(user);
         when(repository.getById(item.getId())).thenReturn(item);
-        when(bookingRepository.findAll()).thenReturn(List.of(booking));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusNotAndStartLessThanEqual(anyLong(), anyLong(), any(), any()))
+                .thenReturn(true);
         CommentDto expectedCommentDto = commentDto;
 
         CommentDto actualCommentDto = service.addComment(item.getId(), user.getId(), commentDto);
@@ -228,4 +301,23 @@ public class ItemServiceTest {
         verify(commentRepository).save(comment);
         assertEquals(expectedCommentDto, actualCommentDto);
     }
+
+    @Test
+    void addComment_whenUserHasNoBooking_thenThrowUnavailableItemException() {
+        CommentDto commentDto = CommentDto.builder()
+                .text("comment text")
+                .build();
+        when(mapper.toDto(any(), anyLong(), any(), anyList())).thenReturn(itemDto);
+        when(userRepository.getById(user.getId())).thenReturn(user);
+        when(repository.getById(item.getId())).thenReturn(item);
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusNotAndStartLessThanEqual(anyLong(), anyLong(), any(), any()))
+                .thenReturn(false);
+
+        assertThrows(UnavailableItemException.class, () -> service.addComment(item.getId(), user.getId(), commentDto));
+
+        verify(bookingRepository).existsByBookerIdAndItemIdAndStatusNotAndStartLessThanEqual(eq(user.getId()),
+                eq(item.getId()), eq(BookingStatus.REJECTED), any());
+        verify(bookingRepository, never()).findAll();
+        verify(commentRepository, never()).save(any());
+    }
 }
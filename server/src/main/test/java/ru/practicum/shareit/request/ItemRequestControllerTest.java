@@ -6,27 +6,41 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.config.RequestLogFilter;
+import ru.practicum.shareit.exception.OwnerNotFoundException;
 import ru.practicum.shareit.request.ItemRequestController;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.stream.NdjsonWriter;
+import ru.practicum.shareit.stream.StreamChunks;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
+@Import(NdjsonWriter.class)
 public class ItemRequestControllerTest {
     @Autowired
     private ObjectMapper mapper;
@@ -123,4 +137,49 @@ public class ItemRequestControllerTest {
         assertEquals(mapper.writeValueAsString(requestDto), response);
     }
 
+
+    @Test
+    @SneakyThrows
+    void streamAllRequests_whenMoreRequestsThanChunk_thenOneRequestPerLine() {
+        int requests = StreamChunks.CHUNK_SIZE + 1;
+        doAnswer(invocation -> {
+            Consumer<ItemRequestDto> consumer = invocation.getArgument(1);
+            for (int i = 0; i < requests; i++) {
+                consumer.accept(requestDto);
+            }
+            return null;
+        }).when(service).streamAllRequests(eq(1L), any());
+
+        MvcResult result = mvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().attribute(RequestLogFilter.COUNT_ATTRIBUTE, (long) requests))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals((mapper.writeValueAsString(requestDto) + "\n").repeat(requests), response);
+    }
+
+    @Test
+    @SneakyThrows
+    void streamAllRequests_whenUserUnknown_thenNotFound() {
+        //the user is checked inside the streamed body, the error is resolved on the async dispatch
+        doThrow(new OwnerNotFoundException("Владелец предмета не найден"))
+                .when(service).streamAllRequests(anyLong(), any());
+
+        MvcResult result = mvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", 999L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Владелец предмета не найден"));
+    }
 }
@@ -25,14 +25,17 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -46,6 +49,8 @@ public class ItemRequestServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserCache userCache;
+    @Mock
     private ItemRequestMapper mapper;
     @Mock
     private ItemMapper itemMapper;
@@ -104,9 +109,10 @@ public class ItemRequestServiceTest {
     @Test
     void getAllRequests_whenInvoked_thenRequestListReturned() {
         List<ItemRequest> requestList = List.of(itemRequest, itemRequest, itemRequest);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
         when(mapper.toDto(any())).thenReturn(itemRequestDto);
-        when(itemRepository.findAllByRequestId(anyLong())).thenReturn(List.of(item, item, item));
+        when(itemRepository.findAllByRequestIdIn(anyCollection())).thenReturn(List.of(item, item, item));
         when(itemMapper.toDtoForRequest(any())).thenReturn(itemDtoForRequest);
         when(repository.findAllByOwnerOrderByCreatedDesc(any())).thenReturn(requestList);
         List<ItemRequestDto> expectedList = List.of(itemRequestDto, itemRequestDto, itemRequestDto);
@@ -114,15 +120,17 @@ public class ItemRequestServiceTest {
         List<ItemRequestDto> actualList = service.getAllRequests(user.getId());
 
         verify(repository).findAllByOwnerOrderByCreatedDesc(any());
+        verify(itemRepository, times(1)).findAllByRequestIdIn(Set.of(itemRequestDto.getId()));
         assertEquals(expectedList, actualList);
     }
 
     @Test
     void getAllRequestsPageable_whenInvoked_thenPageableRequestListReturned() {
         List<ItemRequest> requestList = List.of(itemRequest, itemRequest);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
         when(mapper.toDto(any())).thenReturn(itemRequestDto);
-        when(itemRepository.findAllByRequestId(anyLong())).thenReturn(List.of(item, item));
+        when(itemRepository.findAllByRequestIdIn(anyCollection())).thenReturn(List.of(item, item));
         when(itemMapper.toDtoForRequest(any())).thenReturn(itemDtoForRequest);
         when(repository.findByRequester_IdNot(user.getId(), PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id")))).thenReturn(requestList);
         List<ItemRequestDto> expectedList = List.of(itemRequestDto, itemRequestDto);
@@ -130,32 +138,47 @@ public class ItemRequestServiceTest {
         List<ItemRequestDto> actualList = service.getAllRequestsPageable(user.getId(), 0, 2);
 
         verify(repository).findByRequester_IdNot(user.getId(), PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id")));
+        verify(itemRepository, times(1)).findAllByRequestIdIn(anyCollection());
         assertEquals(expectedList, actualList);
     }
 
+    @Test
+    void getAllRequestsPageable_whenPageIsEmpty_thenItemsNotQueried() {
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
+        when(repository.findByRequester_IdNot(anyLong(), any())).thenReturn(List.of());
+
+        List<ItemRequestDto> actualList = service.getAllRequestsPageable(user.getId(), 0, 2);
+
+        verify(itemRepository, never()).findAllByRequestIdIn(anyCollection());
+        assertEquals(List.of(), actualList);
+    }
+
     @Test
     void getRequest_whenInvoked_thenRequestReturned() {
         when(repository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
         when(mapper.toDto(any())).thenReturn(itemRequestDto);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findAllByRequestId(anyLong())).thenReturn(List.of(item, item, item));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
+        when(itemRepository.findAllByRequestIdIn(anyCollection())).thenReturn(List.of(item, item, item));
         when(itemMapper.toDtoForRequest(any())).thenReturn(itemDtoForRequest);
         ItemRequestDto expectedRequest = itemRequestDto;
 
         ItemRequestDto actualRequest = service.getRequest(itemRequest.getId(), user.getId());
 
-        verify(itemRepository).findAllByRequestId(anyLong());
+        verify(itemRepository).findAllByRequestIdIn(anyCollection());
         assertEquals(expectedRequest, actualRequest);
     }
 
     @Test
     void getRequest_whenItemRequestNotFound_thenThrowItemRequestNotFoundException() {
         when(repository.findById(anyLong())).thenReturn(Optional.empty());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
 
         ItemRequestNotFoundException exception = assertThrows(ItemRequestNotFoundException.class,
                 () -> service.getRequest(itemRequest.getId(), user.getId()));
-        verify(itemRepository, never()).findAllByRequestId(anyLong());
+        verify(itemRepository, never()).findAllByRequestIdIn(anyCollection());
         assertEquals("Запрос не найден", exception.getMessage());
     }
 
@@ -164,7 +187,8 @@ public class ItemRequestServiceTest {
         when(repository.save(any())).thenReturn(itemRequest);
         when(mapper.toEntity(any(), any())).thenReturn(itemRequest);
         when(mapper.toDto(any())).thenReturn(itemRequestDto);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(userRepository.getById(anyLong())).thenReturn(user);
 
         ItemRequestDto actualDto = service.addRequest(itemRequestDto, user.getId());
 
@@ -174,7 +198,7 @@ public class ItemRequestServiceTest {
 
     @Test
     void addRequest_whenUserNotFound_thenThrowOwnerNotFoundException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.exists(anyLong())).thenReturn(false);
 
         OwnerNotFoundException exception = assertThrows(OwnerNotFoundException.class,
                 () -> service.addRequest(itemRequestDto, user.getId()));
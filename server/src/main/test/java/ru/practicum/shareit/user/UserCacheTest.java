@@ -0,0 +1,93 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheTest {
+    @Mock
+    private UserRepository repository;
+
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(new ConcurrentMapCacheManager(UserCache.USERS), repository);
+    }
+
+    @Test
+    void exists_whenCheckedTwice_thenRepositoryQueriedOnce() {
+        when(repository.existsById(1L)).thenReturn(true);
+
+        assertTrue(userCache.exists(1L));
+        assertTrue(userCache.exists(1L));
+
+        verify(repository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void exists_whenUserMissing_thenCachedUntilEvicted() {
+        when(repository.existsById(1L)).thenReturn(false, true);
+
+        assertFalse(userCache.exists(1L));
+        assertFalse(userCache.exists(1L));
+        userCache.evict(1L);
+
+        assertTrue(userCache.exists(1L));
+        verify(repository, times(2)).existsById(1L);
+    }
+
+    @Test
+    void exists_whenEvicted_thenRepositoryQueriedAgain() {
+        when(repository.existsById(1L)).thenReturn(true, false);
+
+        assertTrue(userCache.exists(1L));
+        userCache.evict(1L);
+
+        assertFalse(userCache.exists(1L));
+        verify(repository, times(2)).existsById(1L);
+    }
+
+    @Test
+    void evictAfterCommit_whenTransactionActive_thenEvictedOnlyAfterCommit() {
+        when(repository.existsById(1L)).thenReturn(true, false);
+        assertTrue(userCache.exists(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userCache.evictAfterCommit(1L);
+            assertTrue(userCache.exists(1L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(userCache.exists(1L));
+        verify(repository, times(2)).existsById(1L);
+    }
+
+    @Test
+    void evictAfterCommit_whenNoTransaction_thenEvictedImmediately() {
+        when(repository.existsById(1L)).thenReturn(true, false);
+        assertTrue(userCache.exists(1L));
+
+        userCache.evictAfterCommit(1L);
+
+        assertFalse(userCache.exists(1L));
+    }
+}
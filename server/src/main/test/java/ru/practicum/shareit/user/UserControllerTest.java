@@ -6,24 +6,32 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.config.RequestLogFilter;
 import ru.practicum.shareit.user.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.stream.NdjsonWriter;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
+@Import(NdjsonWriter.class)
 public class UserControllerTest {
     @Autowired
     private ObjectMapper mapper;
@@ -70,6 +78,7 @@ public class UserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(request().attribute(RequestLogFilter.COUNT_ATTRIBUTE, 3L))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
@@ -78,6 +87,32 @@ public class UserControllerTest {
         assertEquals(mapper.writeValueAsString(expectedUserDtoList), response);
     }
 
+    @Test
+    @SneakyThrows
+    void streamAllUsers_whenNdjsonAccepted_thenOneUserPerLine() {
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(userDto);
+            consumer.accept(userDto);
+            return null;
+        }).when(service).streamAllUsers(any());
+
+        MvcResult result = mvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().attribute(RequestLogFilter.COUNT_ATTRIBUTE, 2L))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String line = mapper.writeValueAsString(userDto) + "\n";
+        assertEquals(line + line, response);
+    }
+
     @Test
     @SneakyThrows
     void getUser_whenInvoked_thenReturnedUser() {
@@ -11,12 +11,20 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,10 +33,15 @@ import static org.mockito.Mockito.when;
 public class UserServiceTest {
     @Mock
     private UserRepository repository;
+    @Mock
+    private UserCache userCache;
 
     @Mock
     private UserMapper mapper;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private UserServiceImpl service;
 
@@ -58,6 +71,27 @@ public class UserServiceTest {
         assertEquals(expectedList, actualList);
     }
 
+    @Test
+    void streamAllUsers_whenMoreUsersThanChunk_thenAllPassedAndContextClearedPerChunk() {
+        List<User> userList = LongStream.rangeClosed(1, 250)
+                .mapToObj(id -> {
+                    User user = new User();
+                    user.setId(id);
+                    return user;
+                })
+                .collect(Collectors.toList());
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repository.streamAll()).thenReturn(userList.stream().onClose(() -> closed.set(true)));
+        when(mapper.toDto(any(User.class))).thenReturn(userDto);
+        List<UserDto> streamed = new ArrayList<>();
+
+        service.streamAllUsers(streamed::add);
+
+        assertEquals(250, streamed.size());
+        verify(entityManager, times(3)).clear();
+        assertTrue(closed.get());
+    }
+
     @Test
     void getUser_whenInvoked_thenUserReturned() {
         long userId = 1L;
@@ -88,6 +122,7 @@ public class UserServiceTest {
         UserDto actualUser = service.addUser(userDto);
 
         verify(repository).save(user);
+        verify(userCache).evictAfterCommit(userId);
         assertEquals(userDto, actualUser);
     }
 
@@ -101,6 +136,7 @@ public class UserServiceTest {
         service.deleteUser(userId);
 
         verify(repository).deleteById(userId);
+        verify(userCache).evictAfterCommit(userId);
     }
 
     @Test
@@ -118,6 +154,7 @@ public class UserServiceTest {
 
         verify(repository).getById(userId);
         verify(repository).save(user);
+        verify(userCache).evictAfterCommit(userId);
         assertEquals(userDto, actualUser);
     }
 }